@@ -0,0 +1,124 @@
+package mlb;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Runs DatabaseReader lookups off the caller's thread. A DatabaseReader owns
+ * one connection and is not thread-safe, so every call is queued on a single
+ * daemon thread; callers get a CompletableFuture and never block on SQLite.
+ */
+public class AsyncDatabaseReader implements AutoCloseable {
+
+    private final DatabaseReader reader;
+    private final ExecutorService executor;
+
+    /**
+     * Class constructor
+     *
+     * @param reader used only from the reader thread from now on
+     */
+    public AsyncDatabaseReader(DatabaseReader reader) {
+        this.reader = reader;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mlb-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the list of divisions
+     */
+    public CompletableFuture<ArrayList<String>> getDivisions() {
+        return CompletableFuture.supplyAsync(() -> {
+            ArrayList<String> divisions = new ArrayList<>();
+            reader.getDivisions(divisions);
+            return divisions;
+        }, executor);
+    }
+
+    /**
+     * @param confDiv
+     * @return the teams of a division
+     */
+    public CompletableFuture<ArrayList<String>> getTeams(String confDiv) {
+        return CompletableFuture.supplyAsync(() -> {
+            ArrayList<String> teams = new ArrayList<>();
+            reader.getTeams(confDiv, teams);
+            return teams;
+        }, executor);
+    }
+
+    /**
+     * @param teamName
+     * @return Team info or null; the logo is not fetched yet
+     */
+    public CompletableFuture<Team> getTeamInfo(String teamName) {
+        return CompletableFuture.supplyAsync(() -> reader.getTeamInfo(teamName), executor);
+    }
+
+    /**
+     * @param teamName
+     * @return Team info without its roster, or null; the logo is not
+     * fetched yet
+     */
+    public CompletableFuture<Team> getTeamDetail(String teamName) {
+        return CompletableFuture.supplyAsync(() -> reader.getTeamDetail(teamName), executor);
+    }
+
+    /**
+     * @param query
+     * @param limit
+     * @return Players matching a full-text search, best first
+     */
+    public CompletableFuture<ArrayList<Player>> search(String query, int limit) {
+        return CompletableFuture.supplyAsync(() -> reader.search(query, limit), executor);
+    }
+
+    /**
+     * Fetch a lazily loaded logo on the reader thread
+     *
+     * @param team
+     * @return Team logo or null
+     */
+    public CompletableFuture<byte[]> getLogo(Team team) {
+        return CompletableFuture.supplyAsync(team::getLogo, executor);
+    }
+
+    /**
+     * Cache a division's teams ahead of the clicks on them. Only a
+     * CachedDatabaseReader keeps them; any other reader prefetches nothing.
+     *
+     * @param confDiv
+     * @return the prefetched teams
+     */
+    public CompletableFuture<ArrayList<Team>> prefetchDivision(String confDiv) {
+        return this.submit(reader -> reader instanceof CachedDatabaseReader
+                ? ((CachedDatabaseReader) reader).prefetchDivision(confDiv)
+                : new ArrayList<>());
+    }
+
+    /**
+     * Run any other work that needs the reader on the reader thread
+     *
+     * @param <T>
+     * @param task
+     * @return the task's result
+     */
+    public <T> CompletableFuture<T> submit(Function<DatabaseReader, T> task) {
+        return CompletableFuture.supplyAsync(() -> task.apply(reader), executor);
+    }
+
+    /**
+     * Close the reader after the queued lookups and stop the reader thread
+     */
+    @Override
+    public void close() {
+        executor.execute(reader::close);
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,251 @@
+package mlb;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Type-ahead over a set of names, held in a compressed prefix trie. Every
+ * word of a name is a key, so "cub" completes "Chicago Cubs"; keys are
+ * lower-cased and stripped of accents. Each node caches its best completions,
+ * so a lookup costs a walk down the typed prefix. Adding or removing a name
+ * only touches the nodes on its keys' paths, which lets update() apply a
+ * reload as a diff instead of a rebuild.
+ */
+public class Autocomplete {
+
+    /* Completions cached per node; larger requests walk the subtree */
+    public static final int CACHED_COMPLETIONS = 10;
+
+    private final Node root = new Node("");
+    private final HashMap<String, Integer> weights = new HashMap<>();
+    /* Heavier names first, then alphabetical */
+    private final Comparator<String> order = Comparator.<String>comparingInt(term -> -weights.get(term))
+            .thenComparing(Comparator.naturalOrder());
+
+    private static final class Node {
+
+        private String label;
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private final HashSet<String> terms = new HashSet<>();
+        private List<String> best;
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * @return Number of names
+     */
+    public synchronized int size() {
+        return this.weights.size();
+    }
+
+    /**
+     * Add a name, or change its weight
+     *
+     * @param term
+     * @param weight higher weights are completed first
+     */
+    public synchronized void add(String term, int weight) {
+        Integer previous = this.weights.get(term);
+        if (previous != null) {
+            if (previous == weight) {
+                return;
+            }
+            /* The cached orders on its paths depend on the weight */
+            this.remove(term);
+        }
+        this.weights.put(term, weight);
+        for (String key : keys(term)) {
+            this.insert(key, term);
+        }
+    }
+
+    /**
+     * @param term
+     * @return whether the name was present
+     */
+    public synchronized boolean remove(String term) {
+        if (!this.weights.containsKey(term)) {
+            return false;
+        }
+        for (String key : keys(term)) {
+            this.delete(key, term);
+        }
+        this.weights.remove(term);
+        return true;
+    }
+
+    /**
+     * Make the names and weights match a new data set, touching only what changed
+     *
+     * @param terms name to weight
+     * @return Number of names added, removed or reweighted
+     */
+    public synchronized int update(Map<String, Integer> terms) {
+        int changed = 0;
+        for (String term : new ArrayList<>(this.weights.keySet())) {
+            if (!terms.containsKey(term)) {
+                this.remove(term);
+                changed++;
+            }
+        }
+        for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+            if (!entry.getValue().equals(this.weights.get(entry.getKey()))) {
+                this.add(entry.getKey(), entry.getValue());
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @param prefix what has been typed so far
+     * @param limit most completions returned
+     * @return Names with a word starting with prefix, best first
+     */
+    public synchronized List<String> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        Node node = this.root;
+        int i = 0;
+        while (i < key.length()) {
+            node = node.children.get(key.charAt(i));
+            if (node == null) {
+                return new ArrayList<>();
+            }
+            int common = commonPrefix(node.label, key, i);
+            if (common < node.label.length() && i + common < key.length()) {
+                return new ArrayList<>();
+            }
+            i += common;
+        }
+        List<String> best = this.best(node, limit);
+        return new ArrayList<>(best.subList(0, Math.min(limit, best.size())));
+    }
+
+    /**
+     * @return the best names in a subtree, cached unless more than
+     * CACHED_COMPLETIONS are wanted
+     */
+    private List<String> best(Node node, int limit) {
+        boolean cached = limit <= CACHED_COMPLETIONS;
+        if (cached && node.best != null) {
+            return node.best;
+        }
+        int wanted = Math.max(limit, CACHED_COMPLETIONS);
+        LinkedHashSet<String> candidates = new LinkedHashSet<>(node.terms);
+        for (Node child : node.children.values()) {
+            candidates.addAll(this.best(child, wanted));
+        }
+        ArrayList<String> best = new ArrayList<>(candidates);
+        best.sort(this.order);
+        List<String> top = List.copyOf(best.subList(0, Math.min(wanted, best.size())));
+        if (cached) {
+            node.best = top;
+        }
+        return top;
+    }
+
+    private void insert(String key, String term) {
+        Node node = this.root;
+        node.best = null;
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.children.put(key.charAt(i), child);
+                child.terms.add(term);
+                return;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                /* Split the edge where the key leaves it */
+                Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children.put(child.label.charAt(0), child);
+                node.children.put(split.label.charAt(0), split);
+                child = split;
+            }
+            child.best = null;
+            node = child;
+            i += common;
+        }
+        node.terms.add(term);
+    }
+
+    private void delete(String key, String term) {
+        ArrayList<Node> path = new ArrayList<>();
+        Node node = this.root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            node = node.children.get(key.charAt(i));
+            if (node == null || !key.startsWith(node.label, i)) {
+                return;
+            }
+            path.add(node);
+            i += node.label.length();
+        }
+        node.terms.remove(term);
+        for (Node visited : path) {
+            visited.best = null;
+        }
+        /* Drop nodes left with nothing under them */
+        for (int p = path.size() - 1; p > 0; p--) {
+            Node empty = path.get(p);
+            if (!empty.terms.isEmpty() || !empty.children.isEmpty()) {
+                break;
+            }
+            path.get(p - 1).children.remove(empty.label.charAt(0));
+        }
+    }
+
+    /**
+     * @return length of the common prefix of label and key from offset
+     */
+    private static int commonPrefix(String label, String key, int offset) {
+        int common = 0;
+        while (common < label.length() && offset + common < key.length()
+                && label.charAt(common) == key.charAt(offset + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    /**
+     * @return the name, and each of its later words onward, normalized
+     */
+    static ArrayList<String> keys(String term) {
+        ArrayList<String> keys = new ArrayList<>();
+        String key = normalize(term);
+        if (key.isEmpty()) {
+            return keys;
+        }
+        keys.add(key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            keys.add(key.substring(i + 1));
+        }
+        return keys;
+    }
+
+    /**
+     * @return lower case without accents, single spaces between words
+     */
+    static String normalize(String text) {
+        String plain = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return plain.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,95 @@
+package mlb;
+
+import java.awt.EventQueue;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.swing.JMenuItem;
+import javax.swing.JPopupMenu;
+import javax.swing.JTextField;
+
+/**
+ * Shows Autocomplete completions under a text field on every keystroke.
+ * Clicking a completion, or pressing Enter for the first one, puts it in the
+ * field and hands it to a callback; Escape closes the list.
+ */
+public class AutocompletePopup {
+
+    public static final int LIMIT = 8;
+
+    private final JTextField field;
+    private final Autocomplete completions;
+    private final Consumer<String> chosen;
+    private final JPopupMenu popup = new JPopupMenu();
+    private List<String> shown = List.of();
+    /* Text put in the field by the last choice; it needs no completions */
+    private String chosenText;
+
+    /**
+     * Attach a completion list to a field
+     *
+     * @param field
+     * @param completions
+     * @param chosen called on the EDT with the chosen completion
+     */
+    public AutocompletePopup(JTextField field, Autocomplete completions, Consumer<String> chosen) {
+        this.field = field;
+        this.completions = completions;
+        this.chosen = chosen;
+        /* Typing must stay in the field while the list is open */
+        this.popup.setFocusable(false);
+        field.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            public void insertUpdate(javax.swing.event.DocumentEvent evt) {
+                EventQueue.invokeLater(AutocompletePopup.this::update);
+            }
+
+            public void removeUpdate(javax.swing.event.DocumentEvent evt) {
+                EventQueue.invokeLater(AutocompletePopup.this::update);
+            }
+
+            public void changedUpdate(javax.swing.event.DocumentEvent evt) {
+            }
+        });
+        field.addKeyListener(new java.awt.event.KeyAdapter() {
+            @Override
+            public void keyPressed(java.awt.event.KeyEvent evt) {
+                if (evt.getKeyCode() == java.awt.event.KeyEvent.VK_ESCAPE) {
+                    popup.setVisible(false);
+                } else if (evt.getKeyCode() == java.awt.event.KeyEvent.VK_ENTER && popup.isVisible() && !shown.isEmpty()) {
+                    choose(shown.get(0));
+                }
+            }
+        });
+        field.addFocusListener(new java.awt.event.FocusAdapter() {
+            @Override
+            public void focusLost(java.awt.event.FocusEvent evt) {
+                popup.setVisible(false);
+            }
+        });
+    }
+
+    /**
+     * Refresh the list for the current text
+     */
+    private void update() {
+        String text = this.field.getText();
+        this.shown = text.equals(this.chosenText) ? List.of() : this.completions.complete(text, LIMIT);
+        this.popup.setVisible(false);
+        this.popup.removeAll();
+        if (this.shown.isEmpty() || !this.field.isShowing()) {
+            return;
+        }
+        for (String term : this.shown) {
+            JMenuItem item = new JMenuItem(term);
+            item.addActionListener(evt -> choose(term));
+            this.popup.add(item);
+        }
+        this.popup.show(this.field, 0, this.field.getHeight());
+    }
+
+    private void choose(String term) {
+        this.chosenText = term;
+        this.field.setText(term);
+        this.popup.setVisible(false);
+        this.chosen.accept(term);
+    }
+}
@@ -0,0 +1,336 @@
+package mlb;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * DatabaseReader that remembers divisions, team lists and the least recently
+ * used Team objects, with or without their rosters. Every lookup first asks
+ * SQLite for PRAGMA data_version; when another connection has committed
+ * since the last lookup (or the connection was reopened) everything cached
+ * is dropped.
+ *
+ * Cached Teams are shared between callers and should be treated as read-only.
+ */
+public class CachedDatabaseReader extends DatabaseReader {
+
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final LinkedHashMap<String, Team> teamInfo;
+    private final HashMap<String, ArrayList<String>> teamLists = new HashMap<>();
+    private ArrayList<String> divisions;
+    private long dataVersion = -1;
+    private long hits = 0;
+    private long misses = 0;
+    private long invalidations = 0;
+    /* Names prefetched but not asked for yet */
+    private final HashSet<String> prefetched = new HashSet<>();
+    private long prefetches = 0;
+    private long prefetchHits = 0;
+    private final ArrayList<Runnable> invalidationListeners = new ArrayList<>();
+    /* Roster sizes and first pages in RosterTableModel's first order, for
+     * prefetched teams still in teamInfo */
+    private final HashMap<String, Integer> rosterSizes = new HashMap<>();
+    private final HashMap<String, ArrayList<Player>> firstPages = new HashMap<>();
+    private long pageHits = 0;
+
+    public CachedDatabaseReader() {
+        this("mlb.sqlite", DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param db_filename database file in data/mlb
+     * @param capacity most Team objects kept at once
+     */
+    public CachedDatabaseReader(String db_filename, int capacity) {
+        super(db_filename);
+        this.teamInfo = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Team> eldest) {
+                if (size() > capacity) {
+                    prefetched.remove(eldest.getKey());
+                    rosterSizes.remove(eldest.getKey());
+                    firstPages.remove(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return Lookups answered from the cache
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return Lookups that went to the database
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return Times the cache was dropped because the database changed
+     */
+    public long getInvalidations() {
+        return this.invalidations;
+    }
+
+    /**
+     * @return Teams loaded by prefetchDivision
+     */
+    public long getPrefetches() {
+        return this.prefetches;
+    }
+
+    /**
+     * @return Prefetched teams that were later asked for while still cached
+     */
+    public long getPrefetchHits() {
+        return this.prefetchHits;
+    }
+
+    /**
+     * @return Roster sizes and pages answered from what prefetchDivision read
+     */
+    public long getPageHits() {
+        return this.pageHits;
+    }
+
+    /**
+     * @return Team objects currently cached
+     */
+    public int getCachedTeams() {
+        return this.teamInfo.size();
+    }
+
+    /**
+     * Run a task every time the cache is dropped, so that anything derived
+     * from cached Teams (such as decoded logos) can be dropped with it
+     *
+     * @param listener runs on the thread that made the lookup
+     */
+    public void addInvalidationListener(Runnable listener) {
+        this.invalidationListeners.add(listener);
+    }
+
+    /**
+     * Drop everything cached
+     */
+    public void invalidate() {
+        this.divisions = null;
+        this.teamLists.clear();
+        this.teamInfo.clear();
+        this.prefetched.clear();
+        this.rosterSizes.clear();
+        this.firstPages.clear();
+        for (Runnable listener : this.invalidationListeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Populate the list of divisions
+     *
+     * @param divisions
+     */
+    @Override
+    public void getDivisions(ArrayList<String> divisions) {
+        this.checkDataVersion();
+        if (this.divisions == null) {
+            this.misses++;
+            this.divisions = new ArrayList<>();
+            super.getDivisions(this.divisions);
+        } else {
+            this.hits++;
+        }
+        divisions.addAll(this.divisions);
+    }
+
+    /**
+     * Read all teams from the database
+     *
+     * @param confDiv
+     * @param teams
+     */
+    @Override
+    public void getTeams(String confDiv, ArrayList<String> teams) {
+        this.checkDataVersion();
+        if (this.teamLists.containsKey(confDiv)) {
+            this.hits++;
+        } else {
+            this.misses++;
+        }
+        this.getTeamList(confDiv, teams);
+    }
+
+    /**
+     * @param teamName
+     * @return Team info; unknown teams are not cached
+     */
+    @Override
+    public Team getTeamInfo(String teamName) {
+        this.checkDataVersion();
+        Team team = this.teamInfo.get(teamName);
+        /* A team cached by getTeamDetail has no roster yet */
+        if (team != null && team.getRoster() != null) {
+            return this.hit(teamName, team);
+        }
+        this.misses++;
+        team = super.getTeamInfo(teamName);
+        if (team != null) {
+            this.teamInfo.put(teamName, team);
+        }
+        return team;
+    }
+
+    /**
+     * @param teamName
+     * @return Team info, with its roster only if it was cached with one;
+     * unknown teams are not cached
+     */
+    @Override
+    public Team getTeamDetail(String teamName) {
+        this.checkDataVersion();
+        Team team = this.teamInfo.get(teamName);
+        if (team != null) {
+            return this.hit(teamName, team);
+        }
+        this.misses++;
+        team = super.getTeamDetail(teamName);
+        if (team != null) {
+            this.teamInfo.put(teamName, team);
+        }
+        return team;
+    }
+
+    private Team hit(String teamName, Team team) {
+        this.hits++;
+        if (this.prefetched.remove(teamName)) {
+            this.prefetchHits++;
+        }
+        return team;
+    }
+
+    /**
+     * Load every team of a division that is not cached yet with one set-based
+     * read of the teams and addresses, then read each roster's size and the
+     * first page RosterTableModel shows, so a click on a team is answered
+     * from memory. This is not counted as a hit or a miss.
+     *
+     * @param confDiv
+     * @return the division's teams, cached from now on
+     */
+    public ArrayList<Team> prefetchDivision(String confDiv) {
+        this.checkDataVersion();
+        ArrayList<Team> teams = new ArrayList<>();
+        ArrayList<String> missing = new ArrayList<>();
+        ArrayList<String> names = new ArrayList<>();
+        this.getTeamList(confDiv, names);
+        for (String teamName : names) {
+            Team team = this.teamInfo.get(teamName);
+            if (team == null) {
+                missing.add(teamName);
+            } else {
+                teams.add(team);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Team team : super.getTeamDetails(missing)) {
+                this.teamInfo.put(team.getName(), team);
+                this.prefetched.add(team.getName());
+                this.prefetches++;
+                teams.add(team);
+            }
+        }
+        for (Team team : teams) {
+            String teamName = team.getName();
+            if (!this.firstPages.containsKey(teamName)) {
+                this.rosterSizes.put(teamName, super.getRosterSize(teamName));
+                this.firstPages.put(teamName, super.getRosterPage(teamName, ROSTER_SORT_COLUMNS[0], true, 0,
+                        RosterTableModel.DEFAULT_PAGE_SIZE));
+            }
+        }
+        return teams;
+    }
+
+    @Override
+    public int getRosterSize(String teamName) {
+        this.checkDataVersion();
+        Integer size = this.rosterSizes.get(teamName);
+        if (size != null) {
+            this.pageHits++;
+            return size;
+        }
+        return super.getRosterSize(teamName);
+    }
+
+    /**
+     * The first page in the first sort order comes from prefetchDivision if
+     * it read one; every other page is read from the database
+     */
+    @Override
+    public ArrayList<Player> getRosterPage(String teamName, String sortColumn, boolean ascending, int offset, int limit) {
+        this.checkDataVersion();
+        if (offset == 0 && limit == RosterTableModel.DEFAULT_PAGE_SIZE && ascending
+                && ROSTER_SORT_COLUMNS[0].equals(sortColumn)) {
+            ArrayList<Player> page = this.firstPages.get(teamName);
+            if (page != null) {
+                this.pageHits++;
+                return new ArrayList<>(page);
+            }
+        }
+        return super.getRosterPage(teamName, sortColumn, ascending, offset, limit);
+    }
+
+    /**
+     * Release the connection and drop the cache, whose version it was tied to
+     */
+    @Override
+    public void close() {
+        this.invalidate();
+        this.dataVersion = -1;
+        super.close();
+    }
+
+    /**
+     * Add a division's team names, reading them only if they are not cached
+     */
+    private void getTeamList(String confDiv, ArrayList<String> teams) {
+        ArrayList<String> cached = this.teamLists.get(confDiv);
+        if (cached == null) {
+            cached = new ArrayList<>();
+            super.getTeams(confDiv, cached);
+            this.teamLists.put(confDiv, cached);
+        }
+        teams.addAll(cached);
+    }
+
+    /**
+     * Drop the cache if the database has changed since the last lookup
+     */
+    private void checkDataVersion() {
+        try {
+            long version = this.getDataVersion();
+            if (version != this.dataVersion) {
+                if (this.dataVersion != -1) {
+                    this.invalidations++;
+                }
+                this.invalidate();
+                this.dataVersion = version;
+            }
+        } catch (SQLException ex) {
+            Logger.getLogger(CachedDatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+            this.invalidate();
+        }
+    }
+}
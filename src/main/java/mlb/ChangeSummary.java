@@ -0,0 +1,83 @@
+package mlb;
+
+
+/**
+ * Counts of the rows an incremental refresh touched in one table
+ */
+public class ChangeSummary {
+
+    private final String table;
+    private int inserted;
+    private int updated;
+    private int deleted;
+    private int unchanged;
+
+    /**
+     * Class constructor
+     *
+     * @param table
+     */
+    public ChangeSummary(String table) {
+        this.table = table;
+    }
+
+    /**
+     * @return Table name
+     */
+    public String getTable() {
+        return this.table;
+    }
+
+    /**
+     * @return Rows inserted
+     */
+    public int getInserted() {
+        return this.inserted;
+    }
+
+    /**
+     * @return Rows updated
+     */
+    public int getUpdated() {
+        return this.updated;
+    }
+
+    /**
+     * @return Rows deleted
+     */
+    public int getDeleted() {
+        return this.deleted;
+    }
+
+    /**
+     * @return Rows left as they were
+     */
+    public int getUnchanged() {
+        return this.unchanged;
+    }
+
+    void addInserted() {
+        this.inserted++;
+    }
+
+    void addUpdated() {
+        this.updated++;
+    }
+
+    void addDeleted() {
+        this.deleted++;
+    }
+
+    void addUnchanged() {
+        this.unchanged++;
+    }
+
+    /**
+     * @return Summary as a String
+     */
+    @Override
+    public String toString() {
+        return this.table + ": " + this.inserted + " inserted, " + this.updated + " updated, "
+                + this.deleted + " deleted, " + this.unchanged + " unchanged";
+    }
+}
@@ -0,0 +1,357 @@
+package mlb;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * A DatabaseReader that any number of threads can share. It keeps a fixed
+ * pool of query-only DatabaseReaders, each with its own connection and
+ * statement cache; a call borrows one, runs on it and gives it back, so no
+ * connection or statement is ever used by two threads at once. Readers never
+ * block each other; with wal set (or -Dmlb.wal=true for the tools' main
+ * methods) the database is also switched to WAL mode, for good, so that they
+ * do not block a writer either.
+ * prepare() and getDataVersion() use one more query-only connection of their
+ * own, so data_version always comes from the same connection.
+ */
+public class ConcurrentDatabaseReader extends DatabaseReader {
+
+    public static final int DEFAULT_POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    public static final String WAL_PROPERTY = "mlb.wal";
+    /* How often a thread waiting for a connection checks for close() */
+    private static final long BORROW_CHECK_MILLIS = 100;
+
+    private final BlockingQueue<DatabaseReader> pool;
+    private final ArrayList<DatabaseReader> readers = new ArrayList<>();
+    private volatile boolean closed = false;
+
+    public ConcurrentDatabaseReader() {
+        this("mlb.sqlite", DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * Class constructor; the database's journal mode is left as it is
+     *
+     * @param db_filename database file in data/mlb
+     * @param poolSize number of connections
+     */
+    public ConcurrentDatabaseReader(String db_filename, int poolSize) {
+        this(db_filename, poolSize, false);
+    }
+
+    /**
+     * @param db_filename database file in data/mlb
+     * @param poolSize number of connections
+     * @param wal switch the database file to WAL journaling first
+     */
+    public ConcurrentDatabaseReader(String db_filename, int poolSize, boolean wal) {
+        super(db_filename, true);
+        if (wal) {
+            enableWal(db_filename);
+        }
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            DatabaseReader reader = new DatabaseReader(db_filename, true);
+            this.readers.add(reader);
+            this.pool.add(reader);
+        }
+    }
+
+    /**
+     * Switch a database to WAL journaling unless it already uses it. The mode
+     * is stored in the file and outlives this reader.
+     *
+     * @param db_filename database file in data/mlb
+     */
+    public static void enableWal(String db_filename) {
+        try (DatabaseReader reader = new DatabaseReader(db_filename)) {
+            ResultSet results = reader.prepare("PRAGMA journal_mode").executeQuery();
+            String journalMode = results.next() ? results.getString(1) : "";
+            results.close();
+            if (!"wal".equalsIgnoreCase(journalMode)) {
+                results = reader.prepare("PRAGMA journal_mode = WAL").executeQuery();
+                results.close();
+            }
+        } catch (SQLException ex) {
+            Logger.getLogger(ConcurrentDatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * @return number of connections in the pool
+     */
+    public int getPoolSize() {
+        return this.readers.size();
+    }
+
+    /**
+     * @return number of connections not in use right now
+     */
+    public int getIdle() {
+        return this.pool.size();
+    }
+
+    /**
+     * Run a query on a pooled reader. The calling thread waits while every
+     * connection is in use. The reader must not be kept after query returns.
+     *
+     * @param <T>
+     * @param query
+     * @return the result of query, or null if the thread is interrupted
+     * while waiting
+     * @throws IllegalStateException if the reader is closed
+     */
+    public <T> T read(Function<DatabaseReader, T> query) {
+        DatabaseReader reader = this.borrow();
+        if (reader == null) {
+            return null;
+        }
+        try {
+            return query.apply(reader);
+        } finally {
+            this.giveBack(reader);
+        }
+    }
+
+    /**
+     * Wait for an idle reader. close() empties the pool, so the wait is in
+     * short steps that each check whether the reader has been closed.
+     *
+     * @throws IllegalStateException if the reader is closed
+     */
+    private DatabaseReader borrow() {
+        try {
+            while (true) {
+                if (this.closed) {
+                    throw new IllegalStateException("Reader is closed");
+                }
+                DatabaseReader reader = this.pool.poll(BORROW_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                if (reader != null) {
+                    if (this.closed) {
+                        this.giveBack(reader);
+                        throw new IllegalStateException("Reader is closed");
+                    }
+                    return reader;
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            Logger.getLogger(ConcurrentDatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return null;
+    }
+
+    /**
+     * Return a reader to the pool; after close() it is closed instead
+     */
+    private void giveBack(DatabaseReader reader) {
+        this.pool.add(reader);
+        if (this.closed) {
+            this.closeIdle();
+        }
+    }
+
+    private void closeIdle() {
+        DatabaseReader reader;
+        while ((reader = this.pool.poll()) != null) {
+            reader.close();
+        }
+    }
+
+    /**
+     * Connect the control connection; the pooled readers connect when first
+     * used
+     */
+    @Override
+    public synchronized void connect() {
+        super.connect();
+    }
+
+    /**
+     * Disconnect the control connection
+     */
+    @Override
+    public synchronized void disconnect() {
+        super.disconnect();
+    }
+
+    /**
+     * Close every idle connection and the control connection; connections in
+     * use are closed when they are given back
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.closeIdle();
+        synchronized (this) {
+            super.close();
+        }
+    }
+
+    /**
+     * A statement on the control connection, not on a pooled reader. Only one
+     * thread may use it at a time; run concurrent SQL through read() instead.
+     *
+     * @throws IllegalStateException if the reader is closed
+     */
+    @Override
+    synchronized PreparedStatement prepare(String sql) throws SQLException {
+        if (this.closed) {
+            throw new IllegalStateException("Reader is closed");
+        }
+        return super.prepare(sql);
+    }
+
+    /**
+     * @return data_version of the control connection, which changes when
+     * any other connection commits
+     * @throws IllegalStateException if the reader is closed
+     */
+    @Override
+    public synchronized long getDataVersion() throws SQLException {
+        return super.getDataVersion();
+    }
+
+    @Override
+    public void getDivisions(ArrayList<String> divisions) {
+        this.read(reader -> {
+            reader.getDivisions(divisions);
+            return null;
+        });
+    }
+
+    @Override
+    public void getTeams(String confDiv, ArrayList<String> teams) {
+        this.read(reader -> {
+            reader.getTeams(confDiv, teams);
+            return null;
+        });
+    }
+
+    @Override
+    public void getNames(ArrayList<String> teamNames, ArrayList<String> playerNames) {
+        this.read(reader -> {
+            reader.getNames(teamNames, playerNames);
+            return null;
+        });
+    }
+
+    @Override
+    public Team getTeamInfo(String teamName) {
+        Team team = this.read(reader -> reader.getTeamInfo(teamName));
+        if (team != null) {
+            this.loadLogoFromPool(team);
+        }
+        return team;
+    }
+
+    @Override
+    public Team getTeamDetail(String teamName) {
+        Team team = this.read(reader -> reader.getTeamDetail(teamName));
+        if (team != null) {
+            this.loadLogoFromPool(team);
+        }
+        return team;
+    }
+
+    @Override
+    public ArrayList<Team> getTeamDetails(Collection<String> teamNames) {
+        return this.loadLogosFromPool(this.read(reader -> reader.getTeamDetails(teamNames)));
+    }
+
+    @Override
+    public ArrayList<Team> getTeamInfos(Collection<String> teamNames) {
+        return this.loadLogosFromPool(this.read(reader -> reader.getTeamInfos(teamNames)));
+    }
+
+    @Override
+    public ArrayList<Team> getDivisionDetail(String confDiv) {
+        return this.loadLogosFromPool(this.read(reader -> reader.getDivisionDetail(confDiv)));
+    }
+
+    @Override
+    public int getRosterSize(String teamName) {
+        Integer size = this.read(reader -> reader.getRosterSize(teamName));
+        return size == null ? 0 : size;
+    }
+
+    @Override
+    public ArrayList<Player> getRosterPage(String teamName, String sortColumn, boolean ascending, int offset, int limit) {
+        ArrayList<Player> page = this.read(reader -> reader.getRosterPage(teamName, sortColumn, ascending, offset, limit));
+        return page == null ? new ArrayList<>() : page;
+    }
+
+    /**
+     * The stream keeps its pooled connection until it is closed
+     */
+    @Override
+    public Stream<Player> streamRoster(String teamName, String sortColumn, boolean ascending) {
+        orderBy(sortColumn, ascending);
+        DatabaseReader reader = this.borrow();
+        if (reader == null) {
+            return Stream.empty();
+        }
+        try {
+            return reader.streamRoster(teamName, sortColumn, ascending).onClose(() -> this.giveBack(reader));
+        } catch (RuntimeException ex) {
+            this.giveBack(reader);
+            throw ex;
+        }
+    }
+
+    @Override
+    public ArrayList<Player> search(String query, int limit) {
+        ArrayList<Player> players = this.read(reader -> reader.search(query, limit));
+        return players == null ? new ArrayList<>() : players;
+    }
+
+    @Override
+    public boolean hasSearchIndex() {
+        return Boolean.TRUE.equals(this.read(DatabaseReader::hasSearchIndex));
+    }
+
+    @Override
+    public byte[] getLogo(String teamId) {
+        return this.read(reader -> reader.getLogo(teamId));
+    }
+
+    /**
+     * @return the logo read into memory, so no connection is held by the stream
+     */
+    @Override
+    public InputStream getLogoStream(String teamId) {
+        byte[] logo = this.getLogo(teamId);
+        return logo == null ? null : new ByteArrayInputStream(logo);
+    }
+
+    /**
+     * Teams from a pooled reader would load their logo on that reader, which
+     * may be in use by another thread by then
+     */
+    private void loadLogoFromPool(Team team) {
+        String teamId = team.getId();
+        team.setLogoLoader(() -> this.getLogo(teamId));
+    }
+
+    private ArrayList<Team> loadLogosFromPool(ArrayList<Team> teams) {
+        if (teams == null) {
+            return new ArrayList<>();
+        }
+        for (Team team : teams) {
+            this.loadLogoFromPool(team);
+        }
+        return teams;
+    }
+}
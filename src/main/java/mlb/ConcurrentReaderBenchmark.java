@@ -0,0 +1,111 @@
+package mlb;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures getTeamInfo throughput of a ConcurrentDatabaseReader shared by 1,
+ * 2, 4, ... threads up to the number of cores. Each step runs for a fixed
+ * time and reports operations per second and the speedup over one thread.
+ */
+public class ConcurrentReaderBenchmark {
+
+    public static final int DEFAULT_MILLIS = 2000;
+
+    /**
+     * @param args the command line arguments: [db_filename] [millis per step] [max threads]
+     */
+    public static void main(String[] args) {
+        String db_filename = "mlb.sqlite";
+        int millis = DEFAULT_MILLIS;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        if (args != null && args.length != 0) {
+            db_filename = args[0];
+        }
+        if (args != null && args.length > 1) {
+            millis = Integer.parseInt(args[1]);
+        }
+        if (args != null && args.length > 2) {
+            maxThreads = Integer.parseInt(args[2]);
+        }
+
+        try (ConcurrentDatabaseReader reader = new ConcurrentDatabaseReader(db_filename, maxThreads,
+                Boolean.getBoolean(ConcurrentDatabaseReader.WAL_PROPERTY))) {
+            ArrayList<String> divisions = new ArrayList<>();
+            ArrayList<String> names = new ArrayList<>();
+            reader.getDivisions(divisions);
+            for (String confDiv : divisions) {
+                reader.getTeams(confDiv, names);
+            }
+            /* Warm up every connection's statement cache */
+            run(reader, names, maxThreads, Math.max(1, millis / 4));
+
+            double single = 0;
+            for (int threads : threadCounts(maxThreads)) {
+                double perSecond = run(reader, names, threads, millis) * 1000.0 / millis;
+                if (threads == 1) {
+                    single = perSecond;
+                }
+                System.out.printf("%3d threads %12.0f ops/sec %8.2fx speedup %6.0f%% efficiency%n", threads,
+                        perSecond, perSecond / single, 100 * perSecond / single / threads);
+            }
+        }
+    }
+
+    /**
+     * @return 1, 2, 4, ... and maxThreads itself
+     */
+    static ArrayList<Integer> threadCounts(int maxThreads) {
+        ArrayList<Integer> counts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(Math.max(1, maxThreads));
+        return counts;
+    }
+
+    /**
+     * Look up teams in a loop on every thread for a fixed time
+     *
+     * @return lookups completed by all threads together
+     */
+    static long run(ConcurrentDatabaseReader reader, ArrayList<String> names, int threads, int millis) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        ArrayList<Future<Long>> counts = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int first = t;
+            counts.add(executor.submit(() -> {
+                ready.countDown();
+                go.await();
+                long deadline = System.nanoTime() + millis * 1000000L;
+                long done = 0;
+                for (int i = first; System.nanoTime() < deadline; i++) {
+                    if (reader.getTeamInfo(names.get(i % names.size())) != null) {
+                        done++;
+                    }
+                }
+                return done;
+            }));
+        }
+        long total = 0;
+        try {
+            ready.await();
+            go.countDown();
+            for (Future<Long> count : counts) {
+                total += count.get();
+            }
+        } catch (Exception ex) {
+            Logger.getLogger(ConcurrentReaderBenchmark.class.getName()).log(Level.SEVERE, null, ex);
+        } finally {
+            executor.shutdown();
+        }
+        return total;
+    }
+}
@@ -3,60 +3,208 @@ package mlb;
 /**
  * @author Roman Yasinovskyy
  */
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class DatabaseReader implements AutoCloseable {
 
-public class DatabaseReader {
+    /* Roster columns that can be sorted on, as named in the player table */
+    public static final String[] ROSTER_SORT_COLUMNS = { "name", "position" };
+    public static final int DEFAULT_FETCH_SIZE = 100;
+    /* How often connect() looks at the database file for a replacement */
+    static final long REPLACED_CHECK_NANOS = 1000000000L;
+    private static final String ROSTER_SQL = "SELECT id, name, team, position FROM player"
+            + " WHERE team = (SELECT CAST(idpk AS TEXT) FROM team WHERE name = ?)";
 
     private Connection db_connection;
-    private final String SQLITEDBPATH = "jdbc:sqlite:data/mlb/mlb.sqlite";
+    private final String SQLITEDBPATH;
+    private final Path db_file;
+    /* Identity of the file db_connection was opened on */
+    private Object db_fileKey;
+    /* When the file was last compared with db_fileKey */
+    private long checkedAt;
+    /* Number of connections opened so far */
+    private long generation = 0;
+    private final boolean queryOnly;
+    private final HashMap<String, PreparedStatement> statements = new HashMap<>();
 
     public DatabaseReader() {
+        this("mlb.sqlite");
     }
 
     /**
-     * Connect to a database (file)
+     * @param db_filename database file in data/mlb
+     */
+    public DatabaseReader(String db_filename) {
+        this(db_filename, false);
+    }
+
+    /**
+     * @param db_filename database file in data/mlb
+     * @param queryOnly if true, every connection refuses to change the database
+     */
+    DatabaseReader(String db_filename, boolean queryOnly) {
+        this.SQLITEDBPATH = "jdbc:sqlite:data/mlb/" + db_filename;
+        this.db_file = Paths.get("data/mlb", db_filename);
+        this.queryOnly = queryOnly;
+    }
+
+    /**
+     * Connect to a database (file). The connection stays open until
+     * disconnect() or close() is called, or until another file is renamed
+     * over the database (as MemoryBuild.publish does), when it is reopened on
+     * the new file. The file is looked at by getDataVersion and otherwise at
+     * most once every REPLACED_CHECK_NANOS, not on every statement.
      */
     public void connect() {
         try {
-            this.db_connection = DriverManager.getConnection(SQLITEDBPATH);
+            this.disconnectIfReplaced(false);
+            if (this.db_connection == null || this.db_connection.isClosed()) {
+                this.db_fileKey = fileKey(this.db_file);
+                this.db_connection = DriverManager.getConnection(SQLITEDBPATH);
+                if (this.db_fileKey == null) {
+                    /* SQLite has just created the file */
+                    this.db_fileKey = fileKey(this.db_file);
+                }
+                this.checkedAt = System.nanoTime();
+                this.generation++;
+                if (this.queryOnly) {
+                    Statement statement = this.db_connection.createStatement();
+                    statement.execute("PRAGMA query_only = ON");
+                    statement.close();
+                }
+            }
         } catch (SQLException ex) {
             Logger.getLogger(DatabaseReaderGUI.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
 
+    /**
+     * Disconnect if the database file is no longer the one the connection was
+     * opened on; the next statement connects to the new one
+     *
+     * @param now look at the file even if it was looked at less than
+     * REPLACED_CHECK_NANOS ago
+     */
+    private void disconnectIfReplaced(boolean now) throws SQLException {
+        if (this.db_connection == null || this.db_connection.isClosed()) {
+            return;
+        }
+        long time = System.nanoTime();
+        if (!now && time - this.checkedAt < REPLACED_CHECK_NANOS) {
+            return;
+        }
+        this.checkedAt = time;
+        Object key = fileKey(this.db_file);
+        if (key != null && !key.equals(this.db_fileKey)) {
+            this.disconnect();
+        }
+    }
+
+    /**
+     * @return the file's inode (or creation time where there is none), or
+     * null if it cannot be read
+     */
+    static Object fileKey(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+
     /**
      * Disconnect from a database (file)
      */
     public void disconnect() {
         try {
+            for (PreparedStatement statement : this.statements.values()) {
+                statement.close();
+            }
+            this.statements.clear();
             this.db_connection.close();
+            this.db_connection = null;
         } catch (SQLException ex) {
             Logger.getLogger(DatabaseReaderGUI.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
 
+    /**
+     * Release the connection and cached statements, if any
+     */
+    @Override
+    public void close() {
+        if (this.db_connection != null) {
+            this.disconnect();
+        }
+    }
+
+    /**
+     * @param sql
+     * @return a prepared statement for sql, created once per connection
+     * @throws SQLException
+     */
+    PreparedStatement prepare(String sql) throws SQLException {
+        this.connect();
+        PreparedStatement statement = this.statements.get(sql);
+        if (statement == null) {
+            statement = this.db_connection.prepareStatement(sql);
+            this.statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * @return SQLite's data_version for this connection, above the number of
+     * connections opened so far; it changes when another connection commits
+     * to the database or the database file is replaced
+     * @throws SQLException
+     */
+    public long getDataVersion() throws SQLException {
+        this.disconnectIfReplaced(true);
+        PreparedStatement stat = this.prepare("PRAGMA data_version");
+        ResultSet results = stat.executeQuery();
+        long version = results.next() ? results.getLong(1) : -1;
+        results.close();
+        return version == -1 ? -1 : (this.generation << 32) + version;
+    }
+
     /**
      * Populate the list of divisions
      *
      * @param divisions
      */
     public void getDivisions(ArrayList<String> divisions) {
-        Statement stat;
         ResultSet results;
 
-        this.connect();
         try {
-            stat = this.db_connection.createStatement();
             // TODO: Write an SQL statement to retrieve a league (conference) and a division
-            String sql = "SELECT DISTINCT conference, division FROM team";
-            results = stat.executeQuery(sql);
+            PreparedStatement stat = this.prepare("SELECT DISTINCT conference, division FROM team");
+            results = stat.executeQuery();
             // TODO: Add all 6 combinations to the ArrayList divisions
             while (results.next()) {
                 divisions.add(results.getString("conference") + " | " + results.getString("division"));
@@ -64,8 +212,32 @@ public class DatabaseReader {
             results.close();
         } catch (SQLException ex) {
             Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
-        } finally {
-            this.disconnect();
+        }
+    }
+
+    /**
+     * Populate the lists of team names and distinct player names, without
+     * reading anything else
+     *
+     * @param teamNames
+     * @param playerNames
+     */
+    public void getNames(ArrayList<String> teamNames, ArrayList<String> playerNames) {
+        try {
+            PreparedStatement stat = this.prepare("SELECT name FROM team");
+            ResultSet results = stat.executeQuery();
+            while (results.next()) {
+                teamNames.add(results.getString("name"));
+            }
+            results.close();
+            stat = this.prepare("SELECT DISTINCT name FROM player");
+            results = stat.executeQuery();
+            while (results.next()) {
+                playerNames.add(results.getString("name"));
+            }
+            results.close();
+        } catch (SQLException ex) {
+            Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
         }
     }
 
@@ -76,17 +248,16 @@ public class DatabaseReader {
      * @param teams
      */
     public void getTeams(String confDiv, ArrayList<String> teams) {
-        Statement stat;
         ResultSet results;
         String conference = confDiv.split(" | ")[0];
         String division = confDiv.split(" | ")[2];
 
-        this.connect();
         try {
-            stat = this.db_connection.createStatement();
             // TODO: Write an SQL statement to retrieve a teams from a specific division
-            String sql = "SELECT name FROM team WHERE conference = '" + conference + "' AND division = '" + division + "'";
-            results = stat.executeQuery(sql);
+            PreparedStatement stat = this.prepare("SELECT name FROM team WHERE conference = ? AND division = ?");
+            stat.setString(1, conference);
+            stat.setString(2, division);
+            results = stat.executeQuery();
             // TODO: Add all 5 teams to the ArrayList teams
             while (results.next()) {
                 teams.add(results.getString("name"));
@@ -94,56 +265,361 @@ public class DatabaseReader {
             results.close();
         } catch (SQLException ex) {
             Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
-        } finally {
-            this.disconnect();
         }
     }
 
     /**
      * @param teamName
-     * @return Team info
+     * @return Team info; the logo is only fetched when getLogo() is called
      * @throws SQLException
      */
     public Team getTeamInfo(String teamName) {
-        Statement stat;
+        ArrayList<Team> teams = this.readTeams(true, "team.name = ?", teamName);
+        return teams.isEmpty() ? null : teams.get(0);
+    }
+
+    /**
+     * Read a team and its address in one query, leaving the roster behind
+     * for getRosterSize and getRosterPage
+     *
+     * @param teamName
+     * @return Team info whose getRoster() is null; the logo is only fetched
+     * when getLogo() is called
+     */
+    public Team getTeamDetail(String teamName) {
+        ArrayList<Team> teams = this.readTeams(false, "team.name = ?", teamName);
+        return teams.isEmpty() ? null : teams.get(0);
+    }
+
+    /**
+     * Read several teams with a fixed number of queries
+     *
+     * @param teamNames
+     * @return Team info in the order of teamNames; unknown names are left out
+     */
+    public ArrayList<Team> getTeamInfos(Collection<String> teamNames) {
+        return this.readNamedTeams(true, teamNames);
+    }
+
+    /**
+     * Read several teams and their addresses in one query, without rosters
+     *
+     * @param teamNames
+     * @return Team info in the order of teamNames, getRoster() null; unknown
+     * names are left out
+     */
+    public ArrayList<Team> getTeamDetails(Collection<String> teamNames) {
+        return this.readNamedTeams(false, teamNames);
+    }
+
+    private ArrayList<Team> readNamedTeams(boolean withRosters, Collection<String> teamNames) {
+        ArrayList<Team> teams = new ArrayList<>();
+        String names;
+        try {
+            names = new ObjectMapper().writeValueAsString(teamNames);
+        } catch (JsonProcessingException ex) {
+            Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+            return teams;
+        }
+        HashMap<String, Team> byName = new HashMap<>();
+        for (Team team : this.readTeams(withRosters, "team.name IN (SELECT value FROM json_each(?))", names)) {
+            byName.put(team.getName(), team);
+        }
+        for (String teamName : teamNames) {
+            Team team = byName.remove(teamName);
+            if (team != null) {
+                teams.add(team);
+            }
+        }
+        return teams;
+    }
+
+    /**
+     * Read every team of a division with a fixed number of queries
+     *
+     * @param confDiv
+     * @return Team info ordered by name
+     */
+    public ArrayList<Team> getDivisionDetail(String confDiv) {
+        String conference = confDiv.split(" | ")[0];
+        String division = confDiv.split(" | ")[2];
+        return this.readTeams(true, "team.conference = ? AND team.division = ?", conference, division);
+    }
+
+    /**
+     * Read the teams matching a filter on team, with their addresses and
+     * rosters, in two queries. Players are attached to their teams through a
+     * hash map on team.idpk; logos are left to be fetched lazily.
+     *
+     * @param withRosters false to skip the player query and leave rosters null
+     * @param teamFilter SQL condition on team
+     * @param parameters values for the placeholders in teamFilter
+     * @return Team info ordered by name
+     */
+    private ArrayList<Team> readTeams(boolean withRosters, String teamFilter, String... parameters) {
+        PreparedStatement stat;
         ResultSet results;
-        Team team = null;
-        ArrayList<Player> roster = new ArrayList<>();
-        Address address = null;
+        ArrayList<Team> teams = new ArrayList<>();
+        HashMap<String, Team> byId = new HashMap<>();
 
-        // TODO: Retrieve team info (roster, address, and logo) from the database
-        this.connect();
         try {
-            stat = this.db_connection.createStatement();
-    
-            String sql = "SELECT * FROM team WHERE name = '" + teamName + "'";
-            results = stat.executeQuery(sql);
-            team = new Team(results.getString("idpk"), results.getString("abbr"), results.getString("name"), results.getString("conference"), results.getString("division"));
-    
-            sql = "SELECT * FROM player, team WHERE team.name = '" + teamName + "' AND team.idpk = player.team";
-            results = stat.executeQuery(sql);
+            /* Team and address in one row; the logo BLOB is left behind */
+            stat = this.prepare("SELECT team.idpk, team.abbr, team.name, team.conference, team.division,"
+                    + " address.team AS address_team, address.site, address.street, address.city,"
+                    + " address.state, address.zip, address.phone, address.url"
+                    + " FROM team LEFT JOIN address ON address.team = CAST(team.idpk AS TEXT)"
+                    + " WHERE " + teamFilter + " ORDER BY team.name");
+            for (int i = 0; i < parameters.length; i++) {
+                stat.setString(i + 1, parameters[i]);
+            }
+            results = stat.executeQuery();
+            while (results.next()) {
+                Team team = new Team(results.getString("idpk"), results.getString("abbr"), results.getString("name"), results.getString("conference"), results.getString("division"));
+                if (results.getString("address_team") != null) {
+                    team.setAddress(new Address(results.getString("address_team"), results.getString("site"), results.getString("street"), results.getString("city"), results.getString("state"), results.getString("zip"), results.getString("phone"), results.getString("url")));
+                }
+                if (withRosters) {
+                    team.setRoster(new ArrayList<>());
+                }
+                String teamId = team.getId();
+                team.setLogoLoader(() -> this.getLogo(teamId));
+                teams.add(team);
+                byId.put(teamId, team);
+            }
+            results.close();
+            if (teams.isEmpty() || !withRosters) {
+                return teams;
+            }
+
+            /* player.team is TEXT: compare as TEXT so player_team_idx can be used */
+            stat = this.prepare("SELECT player.id, player.name, player.team, player.position"
+                    + " FROM team JOIN player ON player.team = CAST(team.idpk AS TEXT)"
+                    + " WHERE " + teamFilter);
+            for (int i = 0; i < parameters.length; i++) {
+                stat.setString(i + 1, parameters[i]);
+            }
+            results = stat.executeQuery();
             while (results.next()) {
                 Player player = new Player(results.getString("id"), results.getString("name"), results.getString("team"), results.getString("position"));
-                roster.add(player);
-                team.setRoster(roster);
+                byId.get(player.getTeam()).getRoster().add(player);
             }
-            sql = "SELECT * FROM address, team WHERE team.name = '" + teamName + "' AND team.idpk = address.team";
-            results = stat.executeQuery(sql);
+            results.close();
+        } catch (SQLException ex) {
+            Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return teams;
+    }
+
+    /**
+     * @param teamName
+     * @return Number of players on a team
+     */
+    public int getRosterSize(String teamName) {
+        try {
+            PreparedStatement stat = this.prepare("SELECT COUNT(*) FROM player"
+                    + " WHERE team = (SELECT CAST(idpk AS TEXT) FROM team WHERE name = ?)");
+            stat.setString(1, teamName);
+            ResultSet results = stat.executeQuery();
+            int size = results.next() ? results.getInt(1) : 0;
+            results.close();
+            return size;
+        } catch (SQLException ex) {
+            Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return 0;
+    }
+
+    /**
+     * Read one page of a roster, sorted by the database
+     *
+     * @param teamName
+     * @param sortColumn one of ROSTER_SORT_COLUMNS
+     * @param ascending
+     * @param offset first row of the page
+     * @param limit most rows on the page
+     * @return Players on the page
+     */
+    public ArrayList<Player> getRosterPage(String teamName, String sortColumn, boolean ascending, int offset, int limit) {
+        ArrayList<Player> page = new ArrayList<>();
+        try {
+            PreparedStatement stat = this.prepare(ROSTER_SQL + orderBy(sortColumn, ascending) + " LIMIT ? OFFSET ?");
+            stat.setString(1, teamName);
+            stat.setInt(2, limit);
+            stat.setInt(3, offset);
+            ResultSet results = stat.executeQuery();
             while (results.next()) {
-                address = new Address(results.getString("team"), results.getString("site"), results.getString("street"), results.getString("city"), results.getString("state"), results.getString("zip"), results.getString("phone"), results.getString("url"));
-                team.setAddress(address);
-            }
-            sql = "SELECT logo FROM team WHERE team.name = '" + teamName + "';";
-            results = stat.executeQuery(sql);
-            byte[] logo = results.getBytes("logo");
-            team.setLogo(logo);
-    
+                page.add(new Player(results.getString("id"), results.getString("name"), results.getString("team"), results.getString("position")));
+            }
             results.close();
         } catch (SQLException ex) {
             Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
-        } finally {
-            this.disconnect();
         }
-        return team;
+        return page;
+    }
+
+    /**
+     * Stream a roster without materializing it. Rows are fetched
+     * DEFAULT_FETCH_SIZE at a time on a statement of their own; the stream
+     * must be consumed on the thread that uses this reader and closed to
+     * release the statement.
+     *
+     * @param teamName
+     * @param sortColumn one of ROSTER_SORT_COLUMNS
+     * @param ascending
+     * @return Players
+     */
+    public Stream<Player> streamRoster(String teamName, String sortColumn, boolean ascending) {
+        try {
+            this.connect();
+            PreparedStatement stat = this.db_connection.prepareStatement(ROSTER_SQL + orderBy(sortColumn, ascending));
+            stat.setFetchSize(DEFAULT_FETCH_SIZE);
+            stat.setString(1, teamName);
+            ResultSet results = stat.executeQuery();
+            Spliterator<Player> players = new Spliterators.AbstractSpliterator<Player>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super Player> action) {
+                    try {
+                        if (!results.next()) {
+                            return false;
+                        }
+                        action.accept(new Player(results.getString("id"), results.getString("name"), results.getString("team"), results.getString("position")));
+                        return true;
+                    } catch (SQLException ex) {
+                        Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+                        return false;
+                    }
+                }
+            };
+            return StreamSupport.stream(players, false).onClose(() -> {
+                try {
+                    results.close();
+                    stat.close();
+                } catch (SQLException ex) {
+                    Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+                }
+            });
+        } catch (SQLException ex) {
+            Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return Stream.empty();
+    }
+
+    /**
+     * Full-text player search over name, position and team name. Every word
+     * of the query must match the start of a word, so "cub riz" finds Anthony
+     * Rizzo of the Chicago Cubs. The best matches come first. Needs the
+     * player_search index built by DatabaseWriter.createSearchIndex.
+     *
+     * @param query
+     * @param limit most players returned
+     * @return Players; their team is the team name
+     */
+    public ArrayList<Player> search(String query, int limit) {
+        ArrayList<Player> players = new ArrayList<>();
+        String match = matchExpression(query);
+        if (match == null) {
+            return players;
+        }
+        try {
+            PreparedStatement stat = this.prepare("SELECT player.id, player.name, player_search.team AS team, player.position"
+                    + " FROM player_search JOIN player ON player.idpk = player_search.rowid"
+                    + " WHERE player_search MATCH ? ORDER BY rank LIMIT ?");
+            stat.setString(1, match);
+            stat.setInt(2, limit);
+            ResultSet results = stat.executeQuery();
+            while (results.next()) {
+                players.add(new Player(results.getString("id"), results.getString("name"), results.getString("team"), results.getString("position")));
+            }
+            results.close();
+        } catch (SQLException ex) {
+            Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return players;
+    }
+
+    /**
+     * @return whether the player_search index exists; without it search()
+     * finds nothing
+     */
+    public boolean hasSearchIndex() {
+        try {
+            PreparedStatement stat = this.prepare("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'player_search'");
+            ResultSet results = stat.executeQuery();
+            boolean found = results.next();
+            results.close();
+            return found;
+        } catch (SQLException ex) {
+            Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return false;
+    }
+
+    /**
+     * Turn user input into an FTS5 query: each word becomes a quoted prefix
+     * term, so no input can be read as FTS5 syntax
+     *
+     * @param query
+     * @return MATCH expression, or null if there are no words
+     */
+    static String matchExpression(String query) {
+        StringBuilder match = new StringBuilder();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            match.append('"').append(word.replace("\"", "\"\"")).append("\"*");
+        }
+        return match.length() == 0 ? null : match.toString();
+    }
+
+    /**
+     * @return ORDER BY clause for a whitelisted roster column, ties broken by insertion order
+     */
+    static String orderBy(String sortColumn, boolean ascending) {
+        for (String column : ROSTER_SORT_COLUMNS) {
+            if (column.equals(sortColumn)) {
+                String direction = ascending ? " ASC" : " DESC";
+                return " ORDER BY " + column + direction + ", idpk" + direction;
+            }
+        }
+        throw new IllegalArgumentException("Cannot sort a roster by " + sortColumn);
+    }
+
+    /**
+     * @param teamId team.idpk
+     * @return Team logo or null
+     */
+    public byte[] getLogo(String teamId) {
+        try (InputStream logo = this.getLogoStream(teamId)) {
+            return logo == null ? null : logo.readAllBytes();
+        } catch (IOException ex) {
+            Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return null;
+    }
+
+    /**
+     * @param teamId team.idpk
+     * @return Team logo as a stream or null
+     */
+    public InputStream getLogoStream(String teamId) {
+        try {
+            PreparedStatement stat = this.prepare("SELECT logo FROM team WHERE idpk = ?");
+            stat.setString(1, teamId);
+            ResultSet results = stat.executeQuery();
+            InputStream logo = null;
+            if (results.next()) {
+                logo = results.getBinaryStream("logo");
+            }
+            results.close();
+            return logo;
+        } catch (SQLException ex) {
+            Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return null;
     }
 }
@@ -4,34 +4,90 @@ package mlb;
  * @author Roman Yasinovskyy
  */
 import javax.swing.DefaultListModel;
-import javax.swing.ImageIcon;
-import javax.swing.table.DefaultTableModel;
 
-import java.awt.Image;
-import java.awt.Toolkit;
 import java.util.ArrayList;
 
 public class DatabaseReaderGUI extends javax.swing.JFrame {
 
-        private final DatabaseReader db_reader = new DatabaseReader();
+        /* -Dmlb.snapshot=true serves everything from an in-memory LeagueSnapshot */
+        private final AsyncDatabaseReader db_reader = new AsyncDatabaseReader(
+                        Boolean.getBoolean("mlb.snapshot") ? new SnapshotDatabaseReader() : new CachedDatabaseReader());
+        private final LogoImageCache logoCache = new LogoImageCache(LogoImageCache.DEFAULT_MAX_BYTES);
+        private final PrefetchPolicy prefetchPolicy = PrefetchPolicy.fromProperty();
         private final DefaultListModel<String> listModelDivs = new DefaultListModel<String>();
         private final DefaultListModel<String> listModelTeams = new DefaultListModel<String>();
-        private DefaultTableModel tableModelRoster = new DefaultTableModel();
+        private final RosterTableModel tableModelRoster = new RosterTableModel(db_reader, RosterTableModel.DEFAULT_PAGE_SIZE);
+        /* Only the response to the latest request of each kind is shown */
+        private int teamsRequest = 0;
+        private int teamInfoRequest = 0;
+        private int searchRequest = 0;
+        private static final int SEARCH_LIMIT = 25;
+        private final javax.swing.JTextField jTextFieldSearch = new javax.swing.JTextField();
+        private final javax.swing.JLabel jLabelSearch = new javax.swing.JLabel("Search players");
+        /* Search once typing pauses instead of on every keystroke */
+        private final javax.swing.Timer searchTimer = new javax.swing.Timer(150, evt -> search());
+        /* Team and player names for type-ahead, kept in memory */
+        private final Autocomplete completions = new Autocomplete();
+        private volatile long completionsVersion = -1;
 
         /**
          * Creates new form FileReaderGUI
          */
         public DatabaseReaderGUI() {
                 initComponents();
-                ArrayList<String> divisions = new ArrayList<>();
+                /* Decoded logos are dropped along with the cached teams */
+                db_reader.submit(reader -> {
+                        if (reader instanceof CachedDatabaseReader) {
+                                ((CachedDatabaseReader) reader).addInvalidationListener(logoCache::invalidate);
+                        }
+                        return null;
+                });
+                addSearchBar();
+                refreshCompletions();
+                /* Roster rows are read a page at a time; a header click sorts them in SQL */
+                jTableRoster.setModel(tableModelRoster);
+                tableModelRoster.addTableModelListener(evt -> jLabelRoster.setText(tableModelRoster.getRowCount() == 0
+                                ? "Roster"
+                                : "Roster (" + tableModelRoster.getRowCount() + ")"));
+                jTableRoster.getTableHeader().addMouseListener(new java.awt.event.MouseAdapter() {
+                        @Override
+                        public void mouseClicked(java.awt.event.MouseEvent evt) {
+                                int column = jTableRoster.getTableHeader().columnAtPoint(evt.getPoint());
+                                if (column >= 0) {
+                                        tableModelRoster.sortBy(jTableRoster.convertColumnIndexToModel(column));
+                                }
+                        }
+                });
+                jLabelStatus.setText("Loading divisions...");
                 long start = System.nanoTime();
-                db_reader.getDivisions(divisions);
-                long end = System.nanoTime();
-                jLabelStatus.setText("Found " + divisions.size() + " divisions in " + (end - start) / 1000000 + " ms");
-                for (String divStr : divisions) {
-                        listModelDivs.addElement(divStr);
-                }
-                this.jListDivisions.setSelectedIndex(0);
+                db_reader.getDivisions().thenAcceptAsync(divisions -> {
+                        long end = System.nanoTime();
+                        jLabelStatus.setText("Found " + divisions.size() + " divisions in " + (end - start) / 1000000 + " ms");
+                        for (String divStr : divisions) {
+                                listModelDivs.addElement(divStr);
+                        }
+                        this.jListDivisions.setSelectedIndex(0);
+                }, java.awt.EventQueue::invokeLater);
+                this.addWindowListener(new java.awt.event.WindowAdapter() {
+                        @Override
+                        public void windowClosing(java.awt.event.WindowEvent evt) {
+                                db_reader.submit(reader -> {
+                                        if (!(reader instanceof CachedDatabaseReader)) {
+                                                return null;
+                                        }
+                                        CachedDatabaseReader cache = (CachedDatabaseReader) reader;
+                                        java.util.logging.Logger.getLogger(DatabaseReaderGUI.class.getName()).log(
+                                                        java.util.logging.Level.INFO,
+                                                        "Prefetch {0}: {1} of {2} teams used; logos {3} hits, {4} misses",
+                                                        new Object[] { prefetchPolicy, cache.getPrefetchHits(),
+                                                                        cache.getPrefetches(), logoCache.getHits(),
+                                                                        logoCache.getMisses() });
+                                        return null;
+                                });
+                                db_reader.close();
+                                logoCache.close();
+                        }
+                });
         }
 
         /**
@@ -244,49 +300,211 @@ public class DatabaseReaderGUI extends javax.swing.JFrame {
         private void jListDivisionsValueChanged(javax.swing.event.ListSelectionEvent evt) {// GEN-FIRST:event_jListDivisionsValueChanged
                 String divStr = jListDivisions.getSelectedValue().toString();
                 listModelTeams.clear();
-                ArrayList<String> teams = new ArrayList<>();
-                if (!evt.getValueIsAdjusting()) {
-                        long start = System.nanoTime();
-                        db_reader.getTeams(divStr, teams);
+                if (evt.getValueIsAdjusting()) {
+                        return;
+                }
+                int request = ++this.teamsRequest;
+                jLabelStatus.setText("Loading teams...");
+                long start = System.nanoTime();
+                db_reader.getTeams(divStr).thenAcceptAsync(teams -> {
+                        if (request != this.teamsRequest) {
+                                return;
+                        }
                         long end = System.nanoTime();
                         jLabelStatus.setText("Found " + teams.size() + " teams in " + (end - start) / 1000000 + " ms");
-                }
-                for (String team : teams) {
-                        listModelTeams.addElement(team);
-                }
-                this.jListTeams.setSelectedIndex(0);
+                        for (String team : teams) {
+                                listModelTeams.addElement(team);
+                        }
+                        this.jListTeams.setSelectedIndex(0);
+                        this.prefetch(divStr);
+                }, java.awt.EventQueue::invokeLater);
         }// GEN-LAST:event_jListDivisionsValueChanged
 
         private void jListTeamsValueChanged(javax.swing.event.ListSelectionEvent evt) {// GEN-FIRST:event_jListTeamsValueChanged
                 this.jTextAreaInfo.setText("");
                 this.jLabelLogo.setText("");
                 this.jLabelLogo.setIcon(null);
-                this.tableModelRoster.setRowCount(0);
+                this.tableModelRoster.setTeam(null);
                 if (jListTeams.isSelectionEmpty()) {
+                        this.teamInfoRequest++;
                         return;
                 }
                 String teamName = jListTeams.getSelectedValue().toString();
-                if (!evt.getValueIsAdjusting()) {
-                        long start = System.nanoTime();
-                        Team team = this.db_reader.getTeamInfo(teamName);
+                if (evt.getValueIsAdjusting()) {
+                        return;
+                }
+                int request = ++this.teamInfoRequest;
+                jLabelStatus.setText("Loading " + teamName + "...");
+                this.jLabelLogo.setText("Loading...");
+                long start = System.nanoTime();
+                /* The roster is paged by tableModelRoster, never read here as a whole */
+                this.db_reader.getTeamDetail(teamName).thenAcceptAsync(team -> {
+                        if (request != this.teamInfoRequest) {
+                                return;
+                        }
                         long end = System.nanoTime();
+                        if (team == null) {
+                                jLabelStatus.setText("No information found for " + teamName);
+                                this.jLabelLogo.setText("");
+                                return;
+                        }
                         jLabelStatus.setText("Found team information in " + (end - start) / 1000000 + " ms");
                         /* Populate roster table */
-                        ArrayList<Player> roster = team.getRoster();
-                        for (Player player : roster) {
-                                this.tableModelRoster = (DefaultTableModel) jTableRoster.getModel();
-                                this.tableModelRoster.addRow(new Object[] { player.getName(), player.getPosition() });
-                        }
+                        this.tableModelRoster.setTeam(teamName);
                         /* Populate information text area */
                         jTextAreaInfo.setText(team.toString());
-                        /* Set team logo */
-                        byte[] logoBytes = team.getLogo();
-                        Image img = Toolkit.getDefaultToolkit().createImage(logoBytes);
-                        ImageIcon logo = new ImageIcon(img);
-                        this.jLabelLogo.setIcon(logo);
-                }
+                        /* Set team logo, decoded and scaled once per team */
+                        this.logoCache.getIcon(team, this.db_reader).thenAcceptAsync(logo -> {
+                                if (request != this.teamInfoRequest) {
+                                        return;
+                                }
+                                this.jLabelLogo.setText("");
+                                this.jLabelLogo.setIcon(logo);
+                        }, java.awt.EventQueue::invokeLater);
+                }, java.awt.EventQueue::invokeLater);
         }// GEN-LAST:event_jListTeamsValueChanged
 
+        /**
+         * Put a player search field above the generated form
+         */
+        private void addSearchBar() {
+                javax.swing.JPanel searchBar = new javax.swing.JPanel(new java.awt.BorderLayout(5, 0));
+                searchBar.setBorder(javax.swing.BorderFactory.createEmptyBorder(5, 5, 0, 5));
+                searchBar.add(jLabelSearch, java.awt.BorderLayout.WEST);
+                searchBar.add(jTextFieldSearch, java.awt.BorderLayout.CENTER);
+                javax.swing.JPanel root = new javax.swing.JPanel(new java.awt.BorderLayout());
+                root.add(searchBar, java.awt.BorderLayout.NORTH);
+                root.add(getContentPane(), java.awt.BorderLayout.CENTER);
+                setContentPane(root);
+                pack();
+                searchTimer.setRepeats(false);
+                new AutocompletePopup(jTextFieldSearch, completions, term -> {
+                        searchTimer.stop();
+                        search();
+                });
+                jTextFieldSearch.addFocusListener(new java.awt.event.FocusAdapter() {
+                        @Override
+                        public void focusGained(java.awt.event.FocusEvent evt) {
+                                refreshCompletions();
+                        }
+                });
+                /* A database built before player_search cannot be searched: say so instead of finding nothing */
+                db_reader.submit(DatabaseReader::hasSearchIndex).thenAcceptAsync(indexed -> {
+                        if (!indexed) {
+                                searchTimer.stop();
+                                jTextFieldSearch.setEnabled(false);
+                                jLabelSearch.setText("Search unavailable");
+                                jTextFieldSearch.setToolTipText(
+                                                "No player_search index: rebuild the database with DatabaseWriterDriver");
+                                jLabelSearch.setToolTipText(jTextFieldSearch.getToolTipText());
+                        }
+                }, java.awt.EventQueue::invokeLater);
+                jTextFieldSearch.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+                        public void insertUpdate(javax.swing.event.DocumentEvent evt) {
+                                searchTimer.restart();
+                        }
+
+                        public void removeUpdate(javax.swing.event.DocumentEvent evt) {
+                                searchTimer.restart();
+                        }
+
+                        public void changedUpdate(javax.swing.event.DocumentEvent evt) {
+                                searchTimer.restart();
+                        }
+                });
+        }
+
+        /**
+         * Bring the type-ahead names up to date with the database, on the
+         * reader thread. Only names that changed are added or removed.
+         */
+        private void refreshCompletions() {
+                db_reader.submit(reader -> {
+                        if (reader instanceof SnapshotDatabaseReader) {
+                                if (((SnapshotDatabaseReader) reader).reloadIfModified()) {
+                                        logoCache.invalidate();
+                                }
+                        } else {
+                                try {
+                                        long version = reader.getDataVersion();
+                                        if (version == completionsVersion) {
+                                                return 0;
+                                        }
+                                        completionsVersion = version;
+                                } catch (java.sql.SQLException ex) {
+                                        java.util.logging.Logger.getLogger(DatabaseReaderGUI.class.getName()).log(
+                                                        java.util.logging.Level.SEVERE, null, ex);
+                                        return 0;
+                                }
+                        }
+                        java.util.ArrayList<String> teamNames = new java.util.ArrayList<>();
+                        java.util.ArrayList<String> playerNames = new java.util.ArrayList<>();
+                        reader.getNames(teamNames, playerNames);
+                        return completions.update(completionTerms(teamNames, playerNames));
+                });
+        }
+
+        /**
+         * @return team names, completed first, and player names
+         */
+        static java.util.HashMap<String, Integer> completionTerms(java.util.List<String> teamNames,
+                        java.util.List<String> playerNames) {
+                java.util.HashMap<String, Integer> terms = new java.util.HashMap<>();
+                for (String playerName : playerNames) {
+                        terms.put(playerName, 1);
+                }
+                for (String teamName : teamNames) {
+                        terms.put(teamName, 2);
+                }
+                return terms;
+        }
+
+        /**
+         * Show the best matches for the search field in the information area
+         */
+        private void search() {
+                String query = jTextFieldSearch.getText();
+                int request = ++this.searchRequest;
+                if (query.isBlank() || !jTextFieldSearch.isEnabled()) {
+                        return;
+                }
+                long start = System.nanoTime();
+                db_reader.search(query, SEARCH_LIMIT).thenAcceptAsync(players -> {
+                        if (request != this.searchRequest) {
+                                return;
+                        }
+                        long end = System.nanoTime();
+                        jLabelStatus.setText("Found " + players.size() + " players in " + (end - start) / 1000 + " \u00b5s");
+                        StringBuilder found = new StringBuilder("Players matching \"" + query.trim() + "\"");
+                        for (Player player : players) {
+                                found.append("\n").append(player.getName()).append(", ").append(player.getPosition())
+                                                .append(" (").append(player.getTeam()).append(")");
+                        }
+                        jTextAreaInfo.setText(found.toString());
+                        jTextAreaInfo.setCaretPosition(0);
+                }, java.awt.EventQueue::invokeLater);
+        }
+
+        /**
+         * Load the rest of a division in the background, as the prefetch
+         * policy allows. Each logo is its own reader task, so a click queued
+         * meanwhile does not wait for all of them.
+         *
+         * @param divStr
+         */
+        private void prefetch(String divStr) {
+                if (prefetchPolicy == PrefetchPolicy.OFF) {
+                        return;
+                }
+                db_reader.prefetchDivision(divStr).thenAccept(teams -> {
+                        if (prefetchPolicy == PrefetchPolicy.ROSTERS_AND_LOGOS) {
+                                for (Team team : teams) {
+                                        logoCache.getIcon(team, db_reader);
+                                }
+                        }
+                });
+        }
+
         /**
          * @param args the command line arguments
          */
@@ -7,17 +7,13 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.opencsv.CSVReader;
-import com.opencsv.CSVReaderBuilder;
-import com.opencsv.exceptions.CsvException;
-import com.opencsv.exceptions.CsvValidationException;
 
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
@@ -25,16 +21,68 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class DatabaseWriter {
 
     public final String SQLITEDBPATH = "jdbc:sqlite:data/mlb/";
+    private static final String TEAM_COLUMNS = "("
+            + "idpk INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+            + "id TEXT NOT NULL,"
+            + "abbr TEXT NOT NULL,"
+            + "name TEXT NOT NULL,"
+            + "conference TEXT NOT NULL,"
+            + "division TEXT NOT NULL,"
+            + "logo BLOB);";
+    private static final String PLAYER_TABLE_COLUMNS = "("
+            + "idpk INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+            + "id TEXT NOT NULL,"
+            + "name TEXT NOT NULL,"
+            + "team TEXT NOT NULL,"
+            + "position TEXT NOT NULL,"
+            + "FOREIGN KEY (team) REFERENCES team(idpk));";
+    private static final String ADDRESS_COLUMNS = "("
+            + "idpk INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+            + "team TEXT NOT NULL,"
+            + "site TEXT NOT NULL,"
+            + "street TEXT NOT NULL,"
+            + "city TEXT NOT NULL,"
+            + "state TEXT NOT NULL,"
+            + "zip TEXT NOT NULL,"
+            + "phone TEXT NOT NULL,"
+            + "url TEXT NOT NULL,"
+            + "FOREIGN KEY (team) REFERENCES team(idpk));";
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int LOGO_THREADS = 8;
+    /* Unique natural keys, also needed by ON CONFLICT in refreshTables */
+    private static final String[] NATURAL_KEY_INDEXES = {
+            "CREATE UNIQUE INDEX IF NOT EXISTS team_id_key ON team (id);",
+            "CREATE UNIQUE INDEX IF NOT EXISTS player_id_key ON player (id);",
+            "CREATE UNIQUE INDEX IF NOT EXISTS address_team_key ON address (team);" };
+    /* Lookups by team name, the division list and covering roster scans */
+    private static final String[] SECONDARY_INDEXES = {
+            "CREATE UNIQUE INDEX IF NOT EXISTS team_name_key ON team (name);",
+            "CREATE INDEX IF NOT EXISTS team_division_idx ON team (conference, division, name);",
+            "CREATE INDEX IF NOT EXISTS player_team_idx ON player (team, name, position, id);" };
+    /* Full-text index over players; rowid is player.idpk */
+    static final String PLAYER_SEARCH_TABLE = "CREATE VIRTUAL TABLE IF NOT EXISTS player_search"
+            + " USING fts5(name, position, team, tokenize = 'unicode61 remove_diacritics 2', prefix = '2 3');";
+    static final String INSERT_ADDRESS_SQL = "INSERT INTO address (team, site, street, city, state, zip, phone, url) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_PLAYER_SQL = "INSERT INTO player (id, name, team, position) VALUES (?, ?, ?, ?)";
+    /* players.csv columns used to build a Player: id, name, team, position */
+    public static final String[] PLAYER_COLUMNS = { "mlb_id", "mlb_name", "mlb_team_long", "mlb_pos" };
 
     /**
      * @param filename (JSON file)
@@ -67,48 +115,126 @@ public class DatabaseWriter {
      */
     public ArrayList<Address> readAddressFromTxt(String filename) {
         ArrayList<Address> addressBook = new ArrayList<>();
-
-        try {
-            Scanner fs = new Scanner(new File(filename));
-            // TODO: Parse each line into an object of type Address and add it to the ArrayList
-            while (fs.hasNextLine()) {
-                String[] lineSplit = fs.nextLine().split("\t");
-                Address address = new Address(lineSplit[0], lineSplit[1], lineSplit[2], lineSplit[3], lineSplit[4], lineSplit[5], lineSplit[6], lineSplit[7]);
-                addressBook.add(address);
-            }
-        } catch (IOException ex) {
-            Logger.getLogger(DatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+        try (Stream<Address> addresses = streamAddressesFromTxt(filename)) {
+            addresses.forEach(addressBook::add);
+        } catch (IOException | UncheckedIOException ex) {
+            Logger.getLogger(DatabaseWriter.class.getName()).log(Level.SEVERE, null, ex);
         }
 
         return addressBook;
     }
 
+    /**
+     * Parse the tab-delimited file lazily, one line per Address. Lines without
+     * exactly eight fields are logged and skipped. The stream must be closed to
+     * release the file.
+     *
+     * @param filename (TXT file)
+     * @return Addresses
+     * @throws IOException
+     */
+    public Stream<Address> streamAddressesFromTxt(String filename) throws IOException {
+        DelimitedReader reader = new DelimitedReader(filename, (byte) '\t', 8, Charset.defaultCharset());
+        return streamRows(reader, reader::readNext,
+                row -> new Address(row[0], row[1], row[2], row[3], row[4], row[5], row[6], row[7]));
+    }
+
+    /**
+     * @param filename (CSV file)
+     * @return Players
+     */
     public ArrayList<Player> readPlayerFromCsv(String filename) {
         ArrayList<Player> roster = new ArrayList<>();
-        CSVReader reader = null;
-        // TODO: Read the CSV file, create an object of type Player from each line and add it to the ArrayList
-        try {
-            reader = new CSVReaderBuilder(new FileReader(filename)).build();
-            List<String[]> players = reader.readAll();
-            int counter = 0;
-            for (String[] aPlayer: players) {
-                if (counter != 0) {
-                    Player player = new Player(aPlayer[0], aPlayer[1], aPlayer[4], aPlayer[2]);
-                    roster.add(player);
+        try (Stream<Player> players = streamPlayersFromCsv(filename)) {
+            players.forEach(roster::add);
+        } catch (IOException | UncheckedIOException e) {
+            Logger.getLogger(DatabaseWriter.class.getName()).log(Level.SEVERE, null, e);
+        }
+        return roster;
+    }
+
+    /**
+     * Parse the CSV file lazily, one row per Player, so memory use does not
+     * depend on the size of the file. Only the columns in PLAYER_COLUMNS are
+     * materialized. The stream must be closed to release the file.
+     *
+     * @param filename (CSV file)
+     * @return Players
+     * @throws IOException
+     */
+    public Stream<Player> streamPlayersFromCsv(String filename) throws IOException {
+        ProjectedCsvReader reader = new ProjectedCsvReader(filename, PLAYER_COLUMNS);
+        return streamRows(reader, reader::readNext, row -> new Player(row[0], row[1], row[2], row[3]));
+    }
+
+    /**
+     * Source of parsed rows, null at the end
+     */
+    private interface RowSource {
+        String[] readNext() throws IOException;
+    }
+
+    /**
+     * Turn a row reader into a lazy stream that closes the reader when closed
+     *
+     * @param reader
+     * @param rows
+     * @param mapper builds one record from one row
+     * @return records
+     */
+    private static <T> Stream<T> streamRows(Closeable reader, RowSource rows, Function<String[], T> mapper) {
+        Iterator<T> records = new Iterator<T>() {
+            private String[] next = readRow(rows);
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
                 }
-                counter += 1;
+                T record = mapper.apply(next);
+                next = readRow(rows);
+                return record;
             }
-        } catch (FileNotFoundException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(records, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * @param rows
+     * @return the next row or null at the end of the file
+     */
+    private static String[] readRow(RowSource rows) {
+        try {
+            return rows.readNext();
         } catch (IOException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        } catch (CsvException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
+            throw new UncheckedIOException(e);
         }
-        return roster;
+    }
+
+    /**
+     * Open a connection with foreign keys enforced and auto-commit off
+     *
+     * @param db_filename
+     * @return Connection
+     * @throws SQLException
+     */
+    public Connection openConnection(String db_filename) throws SQLException {
+        Connection db_connection = DriverManager.getConnection(SQLITEDBPATH + db_filename);
+        db_connection.createStatement().execute("PRAGMA foreign_keys = ON;");
+        db_connection.setAutoCommit(false);
+        return db_connection;
     }
 
     /**
@@ -119,67 +245,302 @@ public class DatabaseWriter {
      */
     public void createTables(String db_filename) throws SQLException {
         Connection db_connection = DriverManager.getConnection(SQLITEDBPATH + db_filename);
+        createTables(db_connection);
+        db_connection.close();
+    }
+
+    /**
+     * Create tables cities and teams on an open connection
+     *
+     * @param db_connection
+     * @throws SQLException
+     */
+    public void createTables(Connection db_connection) throws SQLException {
         Statement statement = db_connection.createStatement();
 
         statement.executeUpdate("DROP TABLE IF EXISTS team;");
-        statement.executeUpdate("CREATE TABLE team ("
-                + "idpk INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
-                + "id TEXT NOT NULL,"
-                + "abbr TEXT NOT NULL,"
-                + "name TEXT NOT NULL,"
-                + "conference TEXT NOT NULL,"
-                + "division TEXT NOT NULL,"
-                + "logo BLOB);");
+        statement.executeUpdate("CREATE TABLE team " + TEAM_COLUMNS);
 
         statement.execute("PRAGMA foreign_keys = ON;");
 
         statement.executeUpdate("DROP TABLE IF EXISTS player;");
-        statement.executeUpdate("CREATE TABLE player ("
-                + "idpk INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
-                + "id TEXT NOT NULL,"
-                + "name TEXT NOT NULL,"
-                + "team TEXT NOT NULL,"
-                + "position TEXT NOT NULL,"
-                + "FOREIGN KEY (team) REFERENCES team(idpk));");
+        statement.executeUpdate("CREATE TABLE player " + PLAYER_TABLE_COLUMNS);
 
         statement.executeUpdate("DROP TABLE IF EXISTS address;");
-        statement.executeUpdate("CREATE TABLE address ("
-                + "idpk INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
-                + "team TEXT NOT NULL,"
-                + "site TEXT NOT NULL,"
-                + "street TEXT NOT NULL,"
-                + "city TEXT NOT NULL,"
-                + "state TEXT NOT NULL,"
-                + "zip TEXT NOT NULL,"
-                + "phone TEXT NOT NULL,"
-                + "url TEXT NOT NULL,"
-                + "FOREIGN KEY (team) REFERENCES team(idpk));");
+        statement.executeUpdate("CREATE TABLE address " + ADDRESS_COLUMNS);
+
+        statement.executeUpdate("DROP TABLE IF EXISTS source_fingerprint;");
+        statement.executeUpdate("DROP TABLE IF EXISTS player_search;");
+        statement.close();
+    }
+
+    /**
+     * Create any missing tables, keeping existing rows, together with the
+     * fingerprint table and the natural key indexes an incremental refresh needs
+     *
+     * @param db_connection
+     * @throws SQLException
+     */
+    public void ensureTables(Connection db_connection) throws SQLException {
+        Statement statement = db_connection.createStatement();
+        statement.executeUpdate("CREATE TABLE IF NOT EXISTS team " + TEAM_COLUMNS);
+        statement.executeUpdate("CREATE TABLE IF NOT EXISTS player " + PLAYER_TABLE_COLUMNS);
+        statement.executeUpdate("CREATE TABLE IF NOT EXISTS address " + ADDRESS_COLUMNS);
+        statement.executeUpdate("CREATE TABLE IF NOT EXISTS source_fingerprint ("
+                + "kind TEXT NOT NULL,"
+                + "natural_key TEXT NOT NULL,"
+                + "fingerprint TEXT NOT NULL,"
+                + "PRIMARY KEY (kind, natural_key));");
+        for (String sql : NATURAL_KEY_INDEXES) {
+            statement.executeUpdate(sql);
+        }
+        statement.close();
+    }
+
+    /**
+     * Build all indexes. Call this after a bulk load rather than before it, so
+     * rows are not inserted into the index b-trees one at a time.
+     *
+     * @param db_filename
+     * @throws SQLException
+     */
+    public void createIndexes(String db_filename) throws SQLException {
+        Connection db_connection = openConnection(db_filename);
+        createIndexes(db_connection);
+        db_connection.commit();
         db_connection.close();
     }
 
     /**
-     * Read the file and returns the byte array
+     * Build all indexes on an open connection. The caller commits.
      *
-     * @param filename
-     * @return the bytes of the file
+     * @param db_connection
+     * @throws SQLException
      */
-    private byte[] readLogoFile(String filename) {
-        ByteArrayOutputStream byteArrOutStream = null;
-        try {
-            File fileIn = new File(filename);
-            FileInputStream fileInStream = new FileInputStream(fileIn);
-            byte[] buffer = new byte[1024];
-            byteArrOutStream = new ByteArrayOutputStream();
-            for (int len; (len = fileInStream.read(buffer)) != -1;) {
-                byteArrOutStream.write(buffer, 0, len);
+    public void createIndexes(Connection db_connection) throws SQLException {
+        long start = System.nanoTime();
+        Statement statement = db_connection.createStatement();
+        for (String sql : NATURAL_KEY_INDEXES) {
+            statement.executeUpdate(sql);
+        }
+        for (String sql : SECONDARY_INDEXES) {
+            statement.executeUpdate(sql);
+        }
+        statement.close();
+        createSearchIndex(db_connection);
+        Logger.getLogger(DatabaseWriter.class.getName()).log(Level.INFO, "Built indexes in {0} ms",
+                (System.nanoTime() - start) / 1000000);
+    }
+
+    /**
+     * Rebuild the player_search full-text index from player and team. Each
+     * load ends with createIndexes, which calls this, so the index always
+     * matches the tables it was built from.
+     *
+     * @param db_connection
+     * @throws SQLException
+     */
+    public void createSearchIndex(Connection db_connection) throws SQLException {
+        Statement statement = db_connection.createStatement();
+        statement.executeUpdate(PLAYER_SEARCH_TABLE);
+        statement.executeUpdate("DELETE FROM player_search;");
+        statement.executeUpdate("INSERT INTO player_search (rowid, name, position, team)"
+                + " SELECT player.idpk, player.name, player.position, team.name"
+                + " FROM player JOIN team ON player.team = CAST(team.idpk AS TEXT);");
+        /* Merge the index into one b-tree for the fastest queries */
+        statement.executeUpdate("INSERT INTO player_search (player_search) VALUES ('optimize');");
+        statement.close();
+    }
+
+    /**
+     * Bring existing tables in line with the source data, touching only the
+     * rows whose fingerprint changed. Teams are matched on team id, players on
+     * mlb_id and addresses on team name. The caller commits.
+     *
+     * @param db_connection
+     * @param league
+     * @param addressBook
+     * @param roster
+     * @param batchSize
+     * @return what changed in team, address and player
+     * @throws SQLException
+     */
+    public ArrayList<ChangeSummary> refreshTables(Connection db_connection, ArrayList<Team> league,
+            ArrayList<Address> addressBook, Stream<Player> roster, int batchSize) throws SQLException {
+        checkBatchSize(batchSize);
+        ArrayList<ChangeSummary> changes = new ArrayList<>();
+        ensureTables(db_connection);
+
+        ChangeSummary teamChanges = new ChangeSummary("team");
+        ArrayList<String> staleTeams;
+        try (LogoLoader logos = new LogoLoader(LOGO_THREADS)) {
+            ArrayList<CompletableFuture<byte[]>> logoData = new ArrayList<>();
+            for (Team team : league) {
+                logoData.add(logos.load(LogoLoader.logoFileName(team)));
+            }
+            Iterator<CompletableFuture<byte[]>> nextLogo = logoData.iterator();
+            staleTeams = upsertRows(db_connection, "team", league.iterator(), batchSize, teamChanges,
+                    "SELECT t.id, f.fingerprint FROM team t"
+                            + " LEFT JOIN source_fingerprint f ON f.kind = 'team' AND f.natural_key = t.id",
+                    "INSERT INTO team (id, abbr, name, conference, division, logo) VALUES (?, ?, ?, ?, ?, ?)"
+                            + " ON CONFLICT (id) DO UPDATE SET abbr = excluded.abbr, name = excluded.name,"
+                            + " conference = excluded.conference, division = excluded.division, logo = excluded.logo",
+                    (team, statement_prepared) -> {
+                        byte[] logo = nextLogo.next().join();
+                        String fingerprint = fingerprint(team.getId(), team.getAbbreviation(), team.getName(),
+                                team.getConference(), team.getDivision(), logo == null ? "" : LogoLoader.hash(logo));
+                        statement_prepared.setString(1, team.getId());
+                        statement_prepared.setString(2, team.getAbbreviation());
+                        statement_prepared.setString(3, team.getName());
+                        statement_prepared.setString(4, team.getConference());
+                        statement_prepared.setString(5, team.getDivision());
+                        statement_prepared.setBytes(6, logo);
+                        return new String[] { team.getId(), fingerprint };
+                    });
+        }
+        HashMap<String, Integer> teamKeys = readTeamKeys(db_connection);
+
+        ChangeSummary addressChanges = new ChangeSummary("address");
+        ArrayList<String> staleAddresses = upsertRows(db_connection, "address", addressBook.iterator(), batchSize, addressChanges,
+                "SELECT t.name, f.fingerprint FROM address a JOIN team t ON t.idpk = a.team"
+                        + " LEFT JOIN source_fingerprint f ON f.kind = 'address' AND f.natural_key = t.name",
+                INSERT_ADDRESS_SQL
+                        + " ON CONFLICT (team) DO UPDATE SET site = excluded.site, street = excluded.street,"
+                        + " city = excluded.city, state = excluded.state, zip = excluded.zip,"
+                        + " phone = excluded.phone, url = excluded.url",
+                (address, statement_prepared) -> {
+                    if (!bindAddress(statement_prepared, address, teamKeys)) {
+                        return null;
+                    }
+                    return new String[] { address.getTeam(), fingerprint(address.getTeam(), address.getArena(),
+                            address.getStreet(), address.getCity(), address.getState(), address.getZip(),
+                            address.getPhone(), address.getUrl()) };
+                });
+        deleteRows(db_connection, "address", staleAddresses, addressChanges,
+                "DELETE FROM address WHERE team = (SELECT idpk FROM team WHERE name = ?)");
+
+        ChangeSummary playerChanges = new ChangeSummary("player");
+        ArrayList<String> stalePlayers = upsertRows(db_connection, "player", roster.iterator(), batchSize, playerChanges,
+                "SELECT p.id, f.fingerprint FROM player p"
+                        + " LEFT JOIN source_fingerprint f ON f.kind = 'player' AND f.natural_key = p.id",
+                INSERT_PLAYER_SQL
+                        + " ON CONFLICT (id) DO UPDATE SET name = excluded.name, team = excluded.team,"
+                        + " position = excluded.position",
+                (player, statement_prepared) -> {
+                    if (!bindPlayer(statement_prepared, player, teamKeys)) {
+                        return null;
+                    }
+                    return new String[] { player.getId(), fingerprint(player.getId(), player.getName(),
+                            player.getTeam(), player.getPosition()) };
+                });
+        deleteRows(db_connection, "player", stalePlayers, playerChanges, "DELETE FROM player WHERE id = ?");
+
+        /* Teams go last so no remaining player or address points at them */
+        deleteRows(db_connection, "team", staleTeams, teamChanges, "DELETE FROM team WHERE id = ?");
+
+        changes.add(teamChanges);
+        changes.add(addressChanges);
+        changes.add(playerChanges);
+        for (ChangeSummary change : changes) {
+            Logger.getLogger(DatabaseWriter.class.getName()).log(Level.INFO, change.toString());
+        }
+        return changes;
+    }
+
+    /**
+     * Binds one source record to an upsert statement
+     */
+    private interface RowBinder<T> {
+        /**
+         * @return natural key and fingerprint of the record, or null to skip it
+         */
+        String[] bind(T record, PreparedStatement statement_prepared) throws SQLException;
+    }
+
+    /**
+     * Upsert every record whose fingerprint differs from the stored one
+     *
+     * @return natural keys present in the table but missing from the source
+     */
+    private <T> ArrayList<String> upsertRows(Connection db_connection, String kind, Iterator<T> records, int batchSize,
+            ChangeSummary changes, String existingSql, String upsertSql, RowBinder<T> binder) throws SQLException {
+        HashMap<String, String> existing = new HashMap<>();
+        Statement statement = db_connection.createStatement();
+        ResultSet results = statement.executeQuery(existingSql);
+        while (results.next()) {
+            String stored = results.getString(2);
+            existing.put(results.getString(1), stored == null ? "" : stored);
+        }
+        results.close();
+        statement.close();
+
+        PreparedStatement statement_upsert = db_connection.prepareStatement(upsertSql);
+        PreparedStatement statement_fingerprint = db_connection.prepareStatement(
+                "INSERT INTO source_fingerprint (kind, natural_key, fingerprint) VALUES (?, ?, ?)"
+                        + " ON CONFLICT (kind, natural_key) DO UPDATE SET fingerprint = excluded.fingerprint");
+        int pending = 0;
+        while (records.hasNext()) {
+            String[] keyAndFingerprint = binder.bind(records.next(), statement_upsert);
+            if (keyAndFingerprint == null) {
+                statement_upsert.clearParameters();
+                continue;
             }
-            fileInStream.close();
-        } catch (FileNotFoundException e) {
-            System.err.println(e.getMessage());
-        } catch (IOException e2) {
-            System.err.println(e2.getMessage());
+            String stored = existing.remove(keyAndFingerprint[0]);
+            if (keyAndFingerprint[1].equals(stored)) {
+                changes.addUnchanged();
+                statement_upsert.clearParameters();
+                continue;
+            }
+            if (stored == null) {
+                changes.addInserted();
+            } else {
+                changes.addUpdated();
+            }
+            statement_upsert.addBatch();
+            statement_fingerprint.setString(1, kind);
+            statement_fingerprint.setString(2, keyAndFingerprint[0]);
+            statement_fingerprint.setString(3, keyAndFingerprint[1]);
+            statement_fingerprint.addBatch();
+            if (++pending % batchSize == 0) {
+                statement_upsert.executeBatch();
+                statement_fingerprint.executeBatch();
+            }
+        }
+        statement_upsert.executeBatch();
+        statement_fingerprint.executeBatch();
+        statement_upsert.close();
+        statement_fingerprint.close();
+        return new ArrayList<>(existing.keySet());
+    }
+
+    /**
+     * Delete rows by natural key together with their fingerprints
+     */
+    private void deleteRows(Connection db_connection, String kind, ArrayList<String> keys, ChangeSummary changes,
+            String deleteSql) throws SQLException {
+        PreparedStatement statement_delete = db_connection.prepareStatement(deleteSql);
+        PreparedStatement statement_fingerprint = db_connection.prepareStatement(
+                "DELETE FROM source_fingerprint WHERE kind = ? AND natural_key = ?");
+        for (String key : keys) {
+            statement_delete.setString(1, key);
+            statement_delete.addBatch();
+            statement_fingerprint.setString(1, kind);
+            statement_fingerprint.setString(2, key);
+            statement_fingerprint.addBatch();
+            changes.addDeleted();
         }
-        return byteArrOutStream != null ? byteArrOutStream.toByteArray() : null;
+        statement_delete.executeBatch();
+        statement_fingerprint.executeBatch();
+        statement_delete.close();
+        statement_fingerprint.close();
+    }
+
+    /**
+     * @param fields
+     * @return SHA-256 of the fields separated by a unit separator
+     */
+    static String fingerprint(String... fields) {
+        return LogoLoader.hash(String.join("\u001f", fields).getBytes(StandardCharsets.UTF_8));
     }
 
     /**
@@ -188,87 +549,259 @@ public class DatabaseWriter {
      * @throws java.sql.SQLException
      */
     public void writeTeamTable(String db_filename, ArrayList<Team> league) throws SQLException {
-        Connection db_connection = DriverManager.getConnection(SQLITEDBPATH + db_filename);
-        db_connection.createStatement().execute("PRAGMA foreign_keys = ON;");
-        db_connection.setAutoCommit(false);
-        // TODO: Write an SQL statement to insert a new team into a table
-        String sql = "INSERT INTO team VALUES (?, ?, ?, ?, ?, ?, ?)";
-        // byte[] allLogos = readLogoFile("data/images/mlb");
-        for (Team team : league) {
-            String logoFileName = "./images/mlb/logo_" + team.getAbbreviation().toLowerCase() + ".jpg";
-            byte[] logoData = readLogoFile(logoFileName);
-            PreparedStatement statement_prepared = db_connection.prepareStatement(sql);
-            // TODO: match parameters of the SQL statement and team id, abbreviation, name, conference, division, and logo
-            statement_prepared.setString(2, team.getId());
-            statement_prepared.setString(3, team.getAbbreviation());
-            statement_prepared.setString(4, team.getName());
-            statement_prepared.setString(5, team.getConference());
-            statement_prepared.setString(6, team.getDivision());
-            statement_prepared.setBytes(7, logoData);
-            statement_prepared.executeUpdate();
-        }
+        Connection db_connection = openConnection(db_filename);
+        writeTeamTable(db_connection, league);
         db_connection.commit();
         db_connection.close();
     }
 
+    /**
+     * Insert teams on an open connection. The caller commits.
+     *
+     * @param db_connection
+     * @param league
+     * @throws java.sql.SQLException
+     */
+    public void writeTeamTable(Connection db_connection, ArrayList<Team> league) throws SQLException {
+        long start = System.nanoTime();
+        try (LogoLoader logos = new LogoLoader(LOGO_THREADS)) {
+            /* Start every logo read up front so file I/O overlaps the inserts */
+            ArrayList<CompletableFuture<byte[]>> logoData = new ArrayList<>();
+            for (Team team : league) {
+                logoData.add(logos.load(LogoLoader.logoFileName(team)));
+            }
+            String sql = "INSERT INTO team (id, abbr, name, conference, division, logo) VALUES (?, ?, ?, ?, ?, ?)";
+            PreparedStatement statement_prepared = db_connection.prepareStatement(sql);
+            for (int i = 0; i < league.size(); i++) {
+                Team team = league.get(i);
+                statement_prepared.setString(1, team.getId());
+                statement_prepared.setString(2, team.getAbbreviation());
+                statement_prepared.setString(3, team.getName());
+                statement_prepared.setString(4, team.getConference());
+                statement_prepared.setString(5, team.getDivision());
+                statement_prepared.setBytes(6, logoData.get(i).join());
+                statement_prepared.addBatch();
+            }
+            statement_prepared.executeBatch();
+            statement_prepared.close();
+            Logger.getLogger(DatabaseWriter.class.getName()).log(Level.INFO, "Read {0} distinct logos for {1} teams",
+                    new Object[] { logos.getDistinctLogos(), league.size() });
+        }
+        reportThroughput("team", league.size(), start);
+    }
+
+    /**
+     * Map every team name to its primary key with a single query
+     *
+     * @param db_connection
+     * @return team name to team idpk
+     * @throws SQLException
+     */
+    HashMap<String, Integer> readTeamKeys(Connection db_connection) throws SQLException {
+        HashMap<String, Integer> teamKeys = new HashMap<>();
+        Statement statement = db_connection.createStatement();
+        ResultSet results = statement.executeQuery("SELECT idpk, name FROM team;");
+        while (results.next()) {
+            teamKeys.put(results.getString("name"), results.getInt("idpk"));
+        }
+        results.close();
+        statement.close();
+        return teamKeys;
+    }
+
+    /**
+     * Set the parameters of INSERT_ADDRESS_SQL
+     *
+     * @param statement_prepared
+     * @param address
+     * @param teamKeys
+     * @return false if the team is unknown and the address was not bound
+     * @throws SQLException
+     */
+    static boolean bindAddress(PreparedStatement statement_prepared, Address address, HashMap<String, Integer> teamKeys) throws SQLException {
+        Integer teamId = teamKeys.get(address.getTeam());
+        if (teamId == null) {
+            Logger.getLogger(DatabaseWriter.class.getName()).log(Level.WARNING, "Unknown team {0}", address.getTeam());
+            return false;
+        }
+        statement_prepared.setInt(1, teamId);
+        statement_prepared.setString(2, address.getArena());
+        statement_prepared.setString(3, address.getStreet());
+        statement_prepared.setString(4, address.getCity());
+        statement_prepared.setString(5, address.getState());
+        statement_prepared.setString(6, address.getZip());
+        statement_prepared.setString(7, address.getPhone());
+        statement_prepared.setString(8, address.getUrl());
+        return true;
+    }
+
+    /**
+     * Set the parameters of INSERT_PLAYER_SQL
+     *
+     * @param statement_prepared
+     * @param player
+     * @param teamKeys
+     * @return false if the team is unknown and the player was not bound
+     * @throws SQLException
+     */
+    static boolean bindPlayer(PreparedStatement statement_prepared, Player player, HashMap<String, Integer> teamKeys) throws SQLException {
+        Integer teamId = teamKeys.get(player.getTeam());
+        if (teamId == null) {
+            Logger.getLogger(DatabaseWriter.class.getName()).log(Level.WARNING, "Unknown team {0}", player.getTeam());
+            return false;
+        }
+        statement_prepared.setString(1, player.getId());
+        statement_prepared.setString(2, player.getName());
+        statement_prepared.setInt(3, teamId);
+        statement_prepared.setString(4, player.getPosition());
+        return true;
+    }
+
+    /**
+     * Log the number of rows written and the load rate
+     *
+     * @param table
+     * @param rows
+     * @param start System.nanoTime() when the load started
+     */
+    private void reportThroughput(String table, int rows, long start) {
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        Logger.getLogger(DatabaseWriter.class.getName()).log(Level.INFO,
+                "Wrote {0} rows to {1} in {2} ms ({3} rows/sec)",
+                new Object[] { rows, table, elapsed / 1000000, (long) (rows * 1e9 / elapsed) });
+    }
+
     /**
      * @param db_filename
      * @param addressBook
      * @throws java.sql.SQLException
      */
     public void writeAddressTable(String db_filename, ArrayList<Address> addressBook) throws SQLException {
-        Connection db_connection = DriverManager.getConnection(SQLITEDBPATH + db_filename);
-        db_connection.createStatement().execute("PRAGMA foreign_keys = ON;");
-        db_connection.setAutoCommit(false);
-        for (Address address : addressBook) {
-            // TODO: Write an SQL statement to insert a new address into a table
-            Statement statement = db_connection.createStatement();
-            ResultSet results = statement.executeQuery("SELECT idpk FROM team WHERE team.name = '" + address.getTeam() + "';");
-            int teamId = results.getInt(1);
+        writeAddressTable(db_filename, addressBook, DEFAULT_BATCH_SIZE);
+    }
 
-            String sql = "INSERT INTO address VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            PreparedStatement statement_prepared = db_connection.prepareStatement(sql);
-            // TODO: match parameters of the SQL statement and address site, street, city, state, zip, phone, and url
-            statement_prepared.setInt(2, teamId);
-            statement_prepared.setString(3, address.getArena());
-            statement_prepared.setString(4, address.getStreet());
-            statement_prepared.setString(5, address.getCity());
-            statement_prepared.setString(6, address.getState());
-            statement_prepared.setString(7, address.getZip());
-            statement_prepared.setString(8, address.getPhone());
-            statement_prepared.setString(9, address.getUrl());
-            statement_prepared.executeUpdate();
-                
-        }
+    /**
+     * Insert addresses with a single prepared statement, flushing every batchSize rows
+     *
+     * @param db_filename
+     * @param addressBook
+     * @param batchSize at least 1
+     * @throws java.sql.SQLException
+     * @throws IllegalArgumentException if batchSize is less than 1
+     */
+    public void writeAddressTable(String db_filename, ArrayList<Address> addressBook, int batchSize) throws SQLException {
+        checkBatchSize(batchSize);
+        Connection db_connection = openConnection(db_filename);
+        writeAddressTable(db_connection, addressBook, batchSize);
         db_connection.commit();
         db_connection.close();
     }
 
+    /**
+     * Insert addresses on an open connection. The caller commits.
+     *
+     * @param db_connection
+     * @param addressBook
+     * @param batchSize at least 1
+     * @throws java.sql.SQLException
+     * @throws IllegalArgumentException if batchSize is less than 1
+     */
+    public void writeAddressTable(Connection db_connection, ArrayList<Address> addressBook, int batchSize) throws SQLException {
+        checkBatchSize(batchSize);
+        long start = System.nanoTime();
+        HashMap<String, Integer> teamKeys = readTeamKeys(db_connection);
+        PreparedStatement statement_prepared = db_connection.prepareStatement(INSERT_ADDRESS_SQL);
+        int rows = 0;
+        for (Address address : addressBook) {
+            if (!bindAddress(statement_prepared, address, teamKeys)) {
+                continue;
+            }
+            statement_prepared.addBatch();
+            if (++rows % batchSize == 0) {
+                statement_prepared.executeBatch();
+            }
+        }
+        statement_prepared.executeBatch();
+        statement_prepared.close();
+        reportThroughput("address", rows, start);
+    }
+
     /**
      * @param db_filename
      * @param roster
      * @throws java.sql.SQLException
      */
     public void writePlayerTable(String db_filename, ArrayList<Player> roster) throws SQLException {
-        Connection db_connection = DriverManager.getConnection(SQLITEDBPATH + db_filename);
-        db_connection.createStatement().execute("PRAGMA foreign_keys = ON;");
-        db_connection.setAutoCommit(false);
-        for (Player player : roster) {
-            // TODO: Write an SQL statement to insert a new player into a table
-            Statement statement = db_connection.createStatement();
-            ResultSet results = statement.executeQuery("SELECT idpk FROM team WHERE team.name = '" + player.getTeam() + "';");
-            int teamId = results.getInt(1);
-            
-            String sql = "INSERT INTO player VALUES (?, ?, ?, ?, ?)";
-            PreparedStatement statement_prepared = db_connection.prepareStatement(sql);
-            // TODO: match parameters of the SQL statement and player id, name, position
-            statement_prepared.setString(2, player.getId());
-            statement_prepared.setString(3, player.getName());
-            statement_prepared.setInt(4, teamId);
-            statement_prepared.setString(5, player.getPosition());
-            statement_prepared.executeUpdate();
-        }
+        writePlayerTable(db_filename, roster, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Insert players with a single prepared statement, flushing every batchSize rows
+     *
+     * @param db_filename
+     * @param roster
+     * @param batchSize
+     * @throws java.sql.SQLException
+     */
+    public void writePlayerTable(String db_filename, ArrayList<Player> roster, int batchSize) throws SQLException {
+        writePlayerTable(db_filename, roster.stream(), batchSize);
+    }
+
+    /**
+     * Insert players as they are pulled from the stream, so the roster never
+     * has to be held in memory
+     *
+     * @param db_filename
+     * @param roster
+     * @param batchSize at least 1
+     * @throws java.sql.SQLException
+     * @throws IllegalArgumentException if batchSize is less than 1
+     */
+    public void writePlayerTable(String db_filename, Stream<Player> roster, int batchSize) throws SQLException {
+        checkBatchSize(batchSize);
+        Connection db_connection = openConnection(db_filename);
+        writePlayerTable(db_connection, roster, batchSize);
         db_connection.commit();
         db_connection.close();
     }
+
+    /**
+     * Insert players on an open connection. The caller commits.
+     *
+     * @param db_connection
+     * @param roster
+     * @param batchSize at least 1
+     * @throws java.sql.SQLException
+     * @throws IllegalArgumentException if batchSize is less than 1
+     */
+    public void writePlayerTable(Connection db_connection, Stream<Player> roster, int batchSize) throws SQLException {
+        checkBatchSize(batchSize);
+        long start = System.nanoTime();
+        HashMap<String, Integer> teamKeys = readTeamKeys(db_connection);
+        PreparedStatement statement_prepared = db_connection.prepareStatement(INSERT_PLAYER_SQL);
+        int rows = 0;
+        Iterator<Player> players = roster.iterator();
+        while (players.hasNext()) {
+            if (!bindPlayer(statement_prepared, players.next(), teamKeys)) {
+                continue;
+            }
+            statement_prepared.addBatch();
+            if (++rows % batchSize == 0) {
+                statement_prepared.executeBatch();
+            }
+        }
+        statement_prepared.executeBatch();
+        statement_prepared.close();
+        reportThroughput("player", rows, start);
+    }
+
+    /**
+     * @param batchSize rows per executeBatch
+     * @throws IllegalArgumentException if batchSize is less than 1
+     */
+    static void checkBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1, not " + batchSize);
+        }
+    }
 }
@@ -3,22 +3,175 @@ package mlb;
 /**
  * @author Roman Yasinovskyy
  */
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 public class DatabaseWriterDriver {
 
     /**
-     * @param args the command line arguments
+     * @param args the command line arguments: [db_filename] [--per-call | --incremental | --pipeline | --memory | --sharded]
      */
     public static void main(String[] args) {
         DatabaseWriter dw = new DatabaseWriter();
         String db_filename = "mlb.sqlite";
-        if (args.length != 0) {
+        if (args != null && args.length != 0) {
             db_filename = args[0];
         }
+        long start = System.nanoTime();
+        String mode = args != null && args.length > 1 ? args[1] : "";
+        if (mode.equals("--per-call")) {
+            loadPerCall(dw, db_filename);
+        } else if (mode.equals("--incremental")) {
+            loadIncremental(dw, db_filename);
+        } else if (mode.equals("--pipeline")) {
+            loadPipeline(dw, db_filename);
+        } else if (mode.equals("--memory")) {
+            loadInMemory(dw, db_filename);
+        } else if (mode.equals("--sharded")) {
+            loadSharded(dw, db_filename);
+        } else {
+            loadSession(dw, db_filename);
+        }
+        long end = System.nanoTime();
+        System.out.println("Loaded " + db_filename + " in " + (end - start) / 1000000 + " ms");
+    }
+
+    /**
+     * Load everything through one IngestSession
+     *
+     * @param dw
+     * @param db_filename
+     */
+    public static void loadSession(DatabaseWriter dw, String db_filename) {
+        try (IngestSession session = new IngestSession(dw, db_filename)) {
+            loadAll(dw, session.getConnection());
+        } catch (SQLException | IOException | UncheckedIOException ex) {
+            Logger.getLogger(DatabaseWriterDriver.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * Load everything into an in-memory database and publish it over
+     * db_filename in one atomic rename
+     *
+     * @param dw
+     * @param db_filename
+     */
+    public static void loadInMemory(DatabaseWriter dw, String db_filename) {
+        try (MemoryBuild build = new MemoryBuild(db_filename)) {
+            loadAll(dw, build.getConnection());
+            build.publish();
+        } catch (SQLException | IOException | UncheckedIOException ex) {
+            Logger.getLogger(DatabaseWriterDriver.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * Create the tables, load every source file and build the indexes,
+     * committing after each step
+     *
+     * @param dw
+     * @param db_connection connection with auto-commit off
+     * @throws SQLException
+     * @throws IOException
+     */
+    private static void loadAll(DatabaseWriter dw, Connection db_connection) throws SQLException, IOException {
+        dw.createTables(db_connection);
+        db_connection.commit();
+        /* Read teams from JSON */
+        dw.writeTeamTable(db_connection, dw.readTeamFromJson("data/mlb/teams.json"));
+        db_connection.commit();
+        /* Read addresses from TXT */
+        dw.writeAddressTable(db_connection, dw.readAddressFromTxt("data/mlb/teams.txt"),
+                DatabaseWriter.DEFAULT_BATCH_SIZE);
+        db_connection.commit();
+        /* Stream players from CSV straight into the table */
+        try (Stream<Player> roster = dw.streamPlayersFromCsv("data/mlb/players.csv")) {
+            dw.writePlayerTable(db_connection, roster, DatabaseWriter.DEFAULT_BATCH_SIZE);
+        }
+        db_connection.commit();
+        /* Indexes are built once the rows are in */
+        dw.createIndexes(db_connection);
+        db_connection.commit();
+    }
+
+    /**
+     * Load players on several threads through a ShardedIngest
+     *
+     * @param dw
+     * @param db_filename
+     */
+    public static void loadSharded(DatabaseWriter dw, String db_filename) {
+        try (IngestSession session = new IngestSession(dw, db_filename)) {
+            dw.createTables(session.getConnection());
+            dw.writeTeamTable(session.getConnection(), dw.readTeamFromJson("data/mlb/teams.json"));
+            dw.writeAddressTable(session.getConnection(), dw.readAddressFromTxt("data/mlb/teams.txt"),
+                    DatabaseWriter.DEFAULT_BATCH_SIZE);
+            session.commit();
+            ShardedIngest ingest = new ShardedIngest(dw, ShardedIngest.DEFAULT_SHARDS, DatabaseWriter.DEFAULT_BATCH_SIZE);
+            System.out.println(ingest.run(session.getConnection(), "data/mlb/players.csv"));
+            dw.createIndexes(session.getConnection());
+            session.commit();
+        } catch (SQLException | IOException ex) {
+            Logger.getLogger(DatabaseWriterDriver.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * Parse and write concurrently through a LoadPipeline
+     *
+     * @param dw
+     * @param db_filename
+     */
+    public static void loadPipeline(DatabaseWriter dw, String db_filename) {
+        try (IngestSession session = new IngestSession(dw, db_filename)) {
+            dw.createTables(session.getConnection());
+            session.commit();
+            LoadPipeline pipeline = new LoadPipeline(dw, 10 * DatabaseWriter.DEFAULT_BATCH_SIZE, DatabaseWriter.DEFAULT_BATCH_SIZE);
+            System.out.println(pipeline.run(session.getConnection(),
+                    "data/mlb/teams.json", "data/mlb/teams.txt", "data/mlb/players.csv"));
+            dw.createIndexes(session.getConnection());
+            session.commit();
+        } catch (SQLException | IOException ex) {
+            Logger.getLogger(DatabaseWriterDriver.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * Apply only the differences between the source files and the existing tables
+     *
+     * @param dw
+     * @param db_filename
+     */
+    public static void loadIncremental(DatabaseWriter dw, String db_filename) {
+        try (IngestSession session = new IngestSession(dw, db_filename);
+                Stream<Player> roster = dw.streamPlayersFromCsv("data/mlb/players.csv")) {
+            ArrayList<ChangeSummary> changes = dw.refreshTables(session.getConnection(),
+                    dw.readTeamFromJson("data/mlb/teams.json"), dw.readAddressFromTxt("data/mlb/teams.txt"),
+                    roster, DatabaseWriter.DEFAULT_BATCH_SIZE);
+            dw.createIndexes(session.getConnection());
+            session.commit();
+            for (ChangeSummary change : changes) {
+                System.out.println(change);
+            }
+        } catch (SQLException | IOException | UncheckedIOException ex) {
+            Logger.getLogger(DatabaseWriterDriver.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    /**
+     * Load each table on its own connection, as before IngestSession existed
+     *
+     * @param dw
+     * @param db_filename
+     */
+    public static void loadPerCall(DatabaseWriter dw, String db_filename) {
         try {
             dw.createTables(db_filename);
         } catch (SQLException ex) {
@@ -38,10 +191,14 @@ public class DatabaseWriterDriver {
         } catch (SQLException ex) {
             Logger.getLogger(DatabaseWriterDriver.class.getName()).log(Level.SEVERE, null, ex);
         }
-        /* Read players from CSV */
-        ArrayList<Player> roster = dw.readPlayerFromCsv("data/mlb/players.csv");
+        /* Stream players from CSV straight into the table */
+        try (Stream<Player> roster = dw.streamPlayersFromCsv("data/mlb/players.csv")) {
+            dw.writePlayerTable(db_filename, roster, DatabaseWriter.DEFAULT_BATCH_SIZE);
+        } catch (SQLException | IOException | UncheckedIOException ex) {
+            Logger.getLogger(DatabaseWriterDriver.class.getName()).log(Level.SEVERE, null, ex);
+        }
         try {
-            dw.writePlayerTable(db_filename, roster);
+            dw.createIndexes(db_filename);
         } catch (SQLException ex) {
             Logger.getLogger(DatabaseWriterDriver.class.getName()).log(Level.SEVERE, null, ex);
         }
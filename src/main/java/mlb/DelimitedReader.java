@@ -0,0 +1,178 @@
+package mlb;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reader for delimited text with a fixed number of fields per line. The file
+ * is read through a FileChannel into one large buffer and delimiters are found
+ * by scanning bytes; Strings are only created for the fields of well-formed
+ * lines. Lines with the wrong number of fields are logged, counted and skipped.
+ */
+public class DelimitedReader implements Closeable {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final byte delimiter;
+    private final int fields;
+    private final Charset charset;
+    private final int[] starts;
+    private byte[] buffer;
+    private int position = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    private long lineNumber = 0;
+    private int malformed = 0;
+
+    /**
+     * Class constructor
+     *
+     * @param filename
+     * @param delimiter field separator, e.g. '\t'
+     * @param fields number of fields on every line
+     * @param charset
+     * @throws IOException
+     */
+    public DelimitedReader(String filename, byte delimiter, int fields, Charset charset) throws IOException {
+        this(filename, delimiter, fields, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param filename
+     * @param delimiter field separator, e.g. '\t'
+     * @param fields number of fields on every line
+     * @param charset
+     * @param bufferSize initial buffer size; it grows to fit the longest line
+     * @throws IOException
+     */
+    public DelimitedReader(String filename, byte delimiter, int fields, Charset charset, int bufferSize) throws IOException {
+        this.channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        this.delimiter = delimiter;
+        this.fields = fields;
+        this.charset = charset;
+        this.starts = new int[fields + 1];
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * @return number of the last line read
+     */
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    /**
+     * @return number of lines skipped so far for having the wrong number of fields
+     */
+    public int getMalformed() {
+        return this.malformed;
+    }
+
+    /**
+     * Read the next well-formed line. Blank lines are skipped silently.
+     *
+     * @return the fields of the line or null at the end of the file
+     * @throws IOException
+     */
+    public String[] readNext() throws IOException {
+        while (true) {
+            int end = findLineEnd();
+            if (end < 0) {
+                return null;
+            }
+            lineNumber++;
+            int next = end < limit ? end + 1 : end;
+            if (end > position && buffer[end - 1] == '\r') {
+                end--;
+            }
+            if (end == position) {
+                position = next;
+                continue;
+            }
+            int found = 1;
+            starts[0] = position;
+            for (int i = position; i < end; i++) {
+                if (buffer[i] == delimiter) {
+                    if (found == fields) {
+                        found++;
+                        break;
+                    }
+                    starts[found++] = i + 1;
+                }
+            }
+            if (found != fields) {
+                malformed++;
+                Logger.getLogger(DelimitedReader.class.getName()).log(Level.WARNING,
+                        "Line {0}: expected {1} fields, found {2}",
+                        new Object[] { lineNumber, fields, found > fields ? "more" : found });
+                position = next;
+                continue;
+            }
+            starts[fields] = end + 1;
+            String[] values = new String[fields];
+            for (int f = 0; f < fields; f++) {
+                values[f] = new String(buffer, starts[f], starts[f + 1] - 1 - starts[f], charset);
+            }
+            position = next;
+            return values;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Make sure a whole line starting at position is in the buffer
+     *
+     * @return index of its newline, limit for a last line without one, or -1 at the end of the file
+     */
+    private int findLineEnd() throws IOException {
+        int scanned = position;
+        while (true) {
+            for (int i = scanned; i < limit; i++) {
+                if (buffer[i] == '\n') {
+                    return i;
+                }
+            }
+            if (eof) {
+                return position < limit ? limit : -1;
+            }
+            scanned = limit - position;
+            fill();
+        }
+    }
+
+    /**
+     * Move the partial line to the front of the buffer, growing it if the line
+     * fills it, and read more bytes behind it
+     */
+    private void fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+}
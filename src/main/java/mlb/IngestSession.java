@@ -0,0 +1,83 @@
+package mlb;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * One connection for a whole load. While the session is open SQLite is tuned
+ * for bulk inserts (WAL journal, relaxed syncing, large page cache, in-memory
+ * temp tables). Work is only kept once commit() is called; closing the
+ * session rolls back anything uncommitted, restores durable settings and
+ * refreshes the planner statistics with ANALYZE.
+ */
+public class IngestSession implements AutoCloseable {
+
+    /* Negative cache_size is in KiB: 256 MiB of page cache while loading */
+    public static final int BULK_CACHE_SIZE = -262144;
+
+    private final Connection db_connection;
+    private final String journalMode;
+
+    /**
+     * Open a session on a database file
+     *
+     * @param writer
+     * @param db_filename
+     * @throws SQLException
+     */
+    public IngestSession(DatabaseWriter writer, String db_filename) throws SQLException {
+        this.db_connection = writer.openConnection(db_filename);
+        this.db_connection.setAutoCommit(true);
+        Statement statement = this.db_connection.createStatement();
+        ResultSet results = statement.executeQuery("PRAGMA journal_mode;");
+        this.journalMode = results.getString(1);
+        results.close();
+        statement.execute("PRAGMA journal_mode = WAL;");
+        statement.execute("PRAGMA synchronous = OFF;");
+        statement.execute("PRAGMA cache_size = " + BULK_CACHE_SIZE + ";");
+        statement.execute("PRAGMA temp_store = MEMORY;");
+        statement.close();
+        this.db_connection.setAutoCommit(false);
+    }
+
+    /**
+     * @return the session connection; auto-commit is off
+     */
+    public Connection getConnection() {
+        return this.db_connection;
+    }
+
+    /**
+     * Commit everything written so far
+     *
+     * @throws SQLException
+     */
+    public void commit() throws SQLException {
+        this.db_connection.commit();
+    }
+
+    /**
+     * Roll back uncommitted work, restore safe settings, run ANALYZE and close
+     * the connection
+     *
+     * @throws SQLException
+     */
+    @Override
+    public void close() throws SQLException {
+        try {
+            this.db_connection.rollback();
+            this.db_connection.setAutoCommit(true);
+            Statement statement = this.db_connection.createStatement();
+            statement.execute("PRAGMA synchronous = FULL;");
+            statement.execute("PRAGMA cache_size = -2000;");
+            statement.execute("PRAGMA temp_store = DEFAULT;");
+            statement.execute("PRAGMA journal_mode = " + this.journalMode + ";");
+            statement.execute("ANALYZE;");
+            statement.close();
+        } finally {
+            this.db_connection.close();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package mlb;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets, in the style
+ * of HdrHistogram. Values below 2 * SUB_BUCKETS are counted exactly; above
+ * that every power of two is split into SUB_BUCKETS buckets, so a reported
+ * value is never more than 1 / SUB_BUCKETS (under 1%) above the value
+ * recorded. Recording is a few shifts and an array increment, with no
+ * allocation.
+ *
+ * Not thread-safe: give every thread its own histogram and merge them.
+ */
+public class LatencyHistogram {
+
+    public static final int SUB_BUCKET_BITS = 7;
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /* Enough buckets for any non-negative long */
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count = 0;
+    private long sum = 0;
+    private long min = Long.MAX_VALUE;
+    private long max = 0;
+
+    /**
+     * Count one value
+     *
+     * @param nanos negative values are counted as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        this.counts[index(value)]++;
+        this.count++;
+        this.sum += value;
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+    }
+
+    /**
+     * Add every value counted by another histogram to this one
+     *
+     * @param other
+     */
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts[i] += other.counts[i];
+        }
+        this.count += other.count;
+        this.sum += other.sum;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+    }
+
+    /**
+     * Forget every value
+     */
+    public void reset() {
+        Arrays.fill(this.counts, 0);
+        this.count = 0;
+        this.sum = 0;
+        this.min = Long.MAX_VALUE;
+        this.max = 0;
+    }
+
+    /**
+     * @return number of values recorded
+     */
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return smallest value recorded, or 0 if there are none
+     */
+    public long getMin() {
+        return this.count == 0 ? 0 : this.min;
+    }
+
+    /**
+     * @return largest value recorded exactly
+     */
+    public long getMax() {
+        return this.max;
+    }
+
+    /**
+     * @return exact mean of the values recorded, or 0 if there are none
+     */
+    public double getMean() {
+        return this.count == 0 ? 0 : (double) this.sum / this.count;
+    }
+
+    /**
+     * @param percentile from 0 to 100, e.g. 99.9
+     * @return a value that at least percentile percent of the recorded
+     * values do not exceed, at bucket precision; 0 if there are none
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (this.count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * this.count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(i), this.max);
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * @return bucket of a non-negative value
+     */
+    static int index(long value) {
+        int shift = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * @return largest value that falls in a bucket
+     */
+    static long highestEquivalent(int index) {
+        int shift = index < 2 * SUB_BUCKETS ? 0 : index / SUB_BUCKETS - 1;
+        long lowest = (long) (index - shift * SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
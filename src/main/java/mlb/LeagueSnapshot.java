@@ -0,0 +1,319 @@
+package mlb;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Every team, address and player of mlb.sqlite held in memory, indexed by
+ * team name and id, by conference and division, and players by team and
+ * position, with the words of every player for search. A snapshot never
+ * changes once loaded: lists and maps are unmodifiable, and every Team handed
+ * out is a copy with its own roster and logo, so callers may change it
+ * freely.
+ */
+public final class LeagueSnapshot {
+
+    static final LeagueSnapshot EMPTY = new LeagueSnapshot(new ArrayList<>(), 0);
+
+    private final List<String> divisions;
+    private final Map<String, List<String>> teamsByDivision;
+    private final Map<String, Team> teamsByName;
+    private final Map<String, Team> teamsById;
+    private final Map<String, List<Player>> rosters;
+    private final Map<String, Map<String, List<Player>>> playersByPosition;
+    private final List<SearchEntry> searchEntries;
+    private final int players;
+
+    private LeagueSnapshot(ArrayList<Team> league, int players) {
+        LinkedHashMap<String, List<String>> divisionTeams = new LinkedHashMap<>();
+        HashMap<String, Team> byName = new HashMap<>();
+        HashMap<String, Team> byId = new HashMap<>();
+        HashMap<String, List<Player>> teamRosters = new HashMap<>();
+        HashMap<String, Map<String, List<Player>>> byPosition = new HashMap<>();
+        ArrayList<SearchEntry> entries = new ArrayList<>();
+        for (Team team : league) {
+            String confDiv = team.getConference() + " | " + team.getDivision();
+            divisionTeams.computeIfAbsent(confDiv, key -> new ArrayList<>()).add(team.getName());
+            byName.put(team.getName(), team);
+            byId.put(team.getId(), team);
+            teamRosters.put(team.getName(), List.copyOf(team.getRoster()));
+            /* The roster is only kept in rosters from now on */
+            team.setRoster(null);
+            HashMap<String, List<Player>> positions = new HashMap<>();
+            for (Player player : teamRosters.get(team.getName())) {
+                positions.computeIfAbsent(player.getPosition(), key -> new ArrayList<>()).add(player);
+                entries.add(new SearchEntry(new Player(player.getId(), player.getName(), team.getName(), player.getPosition())));
+            }
+            positions.replaceAll((position, roster) -> List.copyOf(roster));
+            byPosition.put(team.getName(), Collections.unmodifiableMap(positions));
+        }
+        divisionTeams.replaceAll((confDiv, names) -> List.copyOf(names));
+        this.divisions = List.copyOf(divisionTeams.keySet());
+        this.teamsByDivision = Collections.unmodifiableMap(divisionTeams);
+        this.teamsByName = Collections.unmodifiableMap(byName);
+        this.teamsById = Collections.unmodifiableMap(byId);
+        this.rosters = Collections.unmodifiableMap(teamRosters);
+        this.playersByPosition = Collections.unmodifiableMap(byPosition);
+        this.searchEntries = List.copyOf(entries);
+        this.players = players;
+    }
+
+    /**
+     * Read the whole league with three queries
+     *
+     * @param reader
+     * @return a new snapshot
+     * @throws SQLException
+     */
+    static LeagueSnapshot load(DatabaseReader reader) throws SQLException {
+        ArrayList<Team> league = new ArrayList<>();
+        HashMap<String, Team> byId = new HashMap<>();
+        int players = 0;
+
+        PreparedStatement stat = reader.prepare("SELECT idpk, abbr, name, conference, division, logo FROM team ORDER BY idpk");
+        ResultSet results = stat.executeQuery();
+        while (results.next()) {
+            Team team = new Team(results.getString("idpk"), results.getString("abbr"), results.getString("name"), results.getString("conference"), results.getString("division"));
+            team.setLogo(results.getBytes("logo"));
+            team.setRoster(new ArrayList<>());
+            league.add(team);
+            byId.put(team.getId(), team);
+        }
+        results.close();
+
+        stat = reader.prepare("SELECT team, site, street, city, state, zip, phone, url FROM address");
+        results = stat.executeQuery();
+        while (results.next()) {
+            Team team = byId.get(results.getString("team"));
+            if (team != null) {
+                team.setAddress(new Address(results.getString("team"), results.getString("site"), results.getString("street"), results.getString("city"), results.getString("state"), results.getString("zip"), results.getString("phone"), results.getString("url")));
+            }
+        }
+        results.close();
+
+        stat = reader.prepare("SELECT id, name, team, position FROM player ORDER BY idpk");
+        results = stat.executeQuery();
+        while (results.next()) {
+            Team team = byId.get(results.getString("team"));
+            if (team != null) {
+                team.getRoster().add(new Player(results.getString("id"), results.getString("name"), results.getString("team"), results.getString("position")));
+                players++;
+            }
+        }
+        results.close();
+        return new LeagueSnapshot(league, players);
+    }
+
+    /**
+     * @return "Conference | Division" for every division
+     */
+    public List<String> getDivisions() {
+        return this.divisions;
+    }
+
+    /**
+     * @param confDiv
+     * @return Team names of a division
+     */
+    public List<String> getTeams(String confDiv) {
+        return this.teamsByDivision.getOrDefault(confDiv, List.of());
+    }
+
+    /**
+     * @return Every team name, division by division
+     */
+    public List<String> getTeamNames() {
+        ArrayList<String> names = new ArrayList<>();
+        for (List<String> teams : this.teamsByDivision.values()) {
+            names.addAll(teams);
+        }
+        return names;
+    }
+
+    /**
+     * @param teamName
+     * @return a copy of the Team, or null
+     */
+    public Team getTeam(String teamName) {
+        return this.copy(this.teamsByName.get(teamName), true);
+    }
+
+    /**
+     * @param teamName
+     * @return a copy of the Team without its roster, or null
+     */
+    public Team getTeamDetail(String teamName) {
+        return this.copy(this.teamsByName.get(teamName), false);
+    }
+
+    /**
+     * @param teamId team.idpk
+     * @return a copy of the Team, or null
+     */
+    public Team getTeamById(String teamId) {
+        return this.copy(this.teamsById.get(teamId), true);
+    }
+
+    /**
+     * @param teamName
+     * @return Players of a team in roster order; empty for an unknown team
+     */
+    public List<Player> getRoster(String teamName) {
+        return this.rosters.getOrDefault(teamName, List.of());
+    }
+
+    /**
+     * @param teamId team.idpk
+     * @return a copy of the team's logo, or null
+     */
+    public byte[] getLogo(String teamId) {
+        Team team = this.teamsById.get(teamId);
+        byte[] logo = team == null ? null : team.getLogo();
+        return logo == null ? null : logo.clone();
+    }
+
+    /**
+     * @param teamName
+     * @param position
+     * @return Players of a team at a position
+     */
+    public List<Player> getPlayers(String teamName, String position) {
+        return this.playersByPosition.getOrDefault(teamName, Map.of()).getOrDefault(position, List.of());
+    }
+
+    /**
+     * @return a Team the caller owns: same fields and address (both
+     * immutable), a new roster list or none and a logo cloned when first
+     * asked for
+     */
+    private Team copy(Team team, boolean withRoster) {
+        if (team == null) {
+            return null;
+        }
+        Team copy = new Team(team.getId(), team.getAbbreviation(), team.getName(), team.getConference(), team.getDivision());
+        copy.setAddress(team.getAddress());
+        if (withRoster) {
+            copy.setRoster(new ArrayList<>(this.getRoster(team.getName())));
+        }
+        byte[] logo = team.getLogo();
+        if (logo != null) {
+            copy.setLogoLoader(logo::clone);
+        }
+        return copy;
+    }
+
+    /**
+     * Player search by the rules of DatabaseReader.search, without the
+     * player_search index: every word of the query must be the start of a
+     * word of the player's name, position or team name, ignoring case and
+     * accents. Players matching more query words in full come first, then
+     * roster order.
+     *
+     * @param query
+     * @param limit most players returned
+     * @return Players; their team is the team name
+     */
+    public List<Player> search(String query, int limit) {
+        ArrayList<String> terms = new ArrayList<>();
+        for (String word : query.trim().split("\\s+")) {
+            Collections.addAll(terms, words(word));
+        }
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        /* One list per number of whole-word matches, best last */
+        ArrayList<ArrayList<Player>> byScore = new ArrayList<>();
+        for (int i = 0; i <= terms.size(); i++) {
+            byScore.add(new ArrayList<>());
+        }
+        for (SearchEntry entry : this.searchEntries) {
+            int score = entry.match(terms);
+            if (score >= 0) {
+                byScore.get(score).add(entry.player);
+            }
+        }
+        ArrayList<Player> found = new ArrayList<>();
+        for (int score = terms.size(); score >= 0 && found.size() < limit; score--) {
+            List<Player> matches = byScore.get(score);
+            found.addAll(matches.subList(0, Math.min(matches.size(), limit - found.size())));
+        }
+        return found;
+    }
+
+    /**
+     * Split text into lower-case words of letters and digits with accents
+     * removed, like FTS5's unicode61 tokenizer
+     */
+    static String[] words(String text) {
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "").toLowerCase(Locale.ROOT);
+        ArrayList<String> words = new ArrayList<>();
+        for (String word : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    /**
+     * A player with the words of its name, position and team
+     */
+    private static final class SearchEntry {
+
+        private final Player player;
+        private final String[] words;
+
+        SearchEntry(Player player) {
+            this.player = player;
+            this.words = LeagueSnapshot.words(player.getName() + " " + player.getPosition() + " " + player.getTeam());
+        }
+
+        /**
+         * @return how many terms equal a whole word, or -1 if a term starts
+         * no word
+         */
+        int match(List<String> terms) {
+            int whole = 0;
+            for (String term : terms) {
+                boolean prefix = false;
+                boolean equal = false;
+                for (String word : this.words) {
+                    if (word.startsWith(term)) {
+                        prefix = true;
+                        equal |= word.length() == term.length();
+                    }
+                }
+                if (!prefix) {
+                    return -1;
+                }
+                if (equal) {
+                    whole++;
+                }
+            }
+            return whole;
+        }
+    }
+
+    /**
+     * @return Number of teams
+     */
+    public int getTeamCount() {
+        return this.teamsByName.size();
+    }
+
+    /**
+     * @return Number of players
+     */
+    public int getPlayerCount() {
+        return this.players;
+    }
+}
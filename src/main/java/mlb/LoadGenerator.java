@@ -0,0 +1,339 @@
+package mlb;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Closed-loop load generator for the mlb read path. N clients share one
+ * thread-safe reader; each picks an operation from a weighted mix, runs it,
+ * records its latency and immediately starts the next one. After a warm-up
+ * the clients run for a fixed time and the per-operation histograms are
+ * merged and reported as one line of JSON.
+ *
+ * Being closed-loop, a slow call delays the client's next call instead of
+ * piling up behind it, so the percentiles describe service time under the
+ * given concurrency, not the latency an open stream of arrivals would see.
+ */
+public class LoadGenerator {
+
+    public static final String[] OPERATIONS = { "divisions", "teams", "team" };
+    public static final String DEFAULT_MIX = "divisions:1,teams:2,team:7";
+    public static final int DEFAULT_CLIENTS = 8;
+    public static final int DEFAULT_SECONDS = 10;
+    public static final double WARMUP_FRACTION = 0.2;
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9 };
+    private static final String[] PERCENTILE_NAMES = { "p50", "p90", "p99", "p999" };
+
+    private final DatabaseReader reader;
+    private final int[] weights = new int[OPERATIONS.length];
+    private final ArrayList<String> divisions = new ArrayList<>();
+    private final ArrayList<String> teamNames = new ArrayList<>();
+
+    /**
+     * Class constructor. Divisions and team names for the requests are read
+     * once here and are not part of the measurement.
+     *
+     * @param reader shared by all clients; must be safe for concurrent use
+     * @param mix weights such as "divisions:1,teams:2,team:7"
+     */
+    public LoadGenerator(DatabaseReader reader, String mix) {
+        this.reader = reader;
+        Map<String, Integer> parsed = parseMix(mix);
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            this.weights[i] = parsed.getOrDefault(OPERATIONS[i], 0);
+        }
+        reader.getDivisions(this.divisions);
+        for (String confDiv : this.divisions) {
+            reader.getTeams(confDiv, this.teamNames);
+        }
+        if (this.divisions.isEmpty() || this.teamNames.isEmpty()) {
+            throw new IllegalStateException("The database has no teams to ask for");
+        }
+    }
+
+    /**
+     * @param mix comma-separated operation:weight pairs
+     * @return weight of every operation named
+     * @throws IllegalArgumentException for an unknown operation, a bad
+     * weight or weights that add up to 0
+     */
+    static LinkedHashMap<String, Integer> parseMix(String mix) {
+        LinkedHashMap<String, Integer> weights = new LinkedHashMap<>();
+        int total = 0;
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2 || !Arrays.asList(OPERATIONS).contains(parts[0].trim())) {
+                throw new IllegalArgumentException("Expected operation:weight with an operation from "
+                        + String.join(", ", OPERATIONS) + ", found " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in " + entry);
+            }
+            weights.put(parts[0].trim(), weight);
+            total += weight;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("The mix has no operations: " + mix);
+        }
+        return weights;
+    }
+
+    /**
+     * Warm up, then run the clients for a fixed time
+     *
+     * @param clients concurrent callers
+     * @param millis measured time; a further WARMUP_FRACTION of it is spent warming up
+     * @param seed makes the sequence of operations repeatable
+     * @return the measurements
+     * @throws ExecutionException if a client failed; its exception is the
+     * cause
+     * @throws InterruptedException
+     */
+    public Report run(int clients, long millis, long seed) throws ExecutionException, InterruptedException {
+        this.runClients(clients, (long) (millis * WARMUP_FRACTION), seed - 1);
+        return this.runClients(clients, millis, seed);
+    }
+
+    private Report runClients(int clients, long millis, long seed) throws ExecutionException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(clients, runnable -> {
+            Thread thread = new Thread(runnable, "load-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CountDownLatch ready = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        ArrayList<Future<LatencyHistogram[]>> results = new ArrayList<>();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        for (int c = 0; c < clients; c++) {
+            SplittableRandom random = seeds.split();
+            results.add(executor.submit(() -> {
+                ready.countDown();
+                go.await();
+                return this.client(random, System.nanoTime() + millis * 1000000L);
+            }));
+        }
+        Report report = new Report(clients);
+        try {
+            ready.await();
+            long start = System.nanoTime();
+            go.countDown();
+            for (Future<LatencyHistogram[]> result : results) {
+                LatencyHistogram[] histograms = result.get();
+                for (int i = 0; i < OPERATIONS.length; i++) {
+                    report.histograms[i].merge(histograms[i]);
+                }
+            }
+            report.elapsedNanos = System.nanoTime() - start;
+        } finally {
+            executor.shutdownNow();
+        }
+        return report;
+    }
+
+    /**
+     * One client: call, record, repeat until the deadline
+     *
+     * @return a histogram per operation, owned by this client only
+     */
+    private LatencyHistogram[] client(SplittableRandom random, long deadline) {
+        LatencyHistogram[] histograms = new LatencyHistogram[OPERATIONS.length];
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        int total = 0;
+        for (int weight : this.weights) {
+            total += weight;
+        }
+        long now = System.nanoTime();
+        while (now < deadline) {
+            int pick = random.nextInt(total);
+            int operation = 0;
+            while (pick >= this.weights[operation]) {
+                pick -= this.weights[operation++];
+            }
+            String division = this.divisions.get(random.nextInt(this.divisions.size()));
+            String teamName = this.teamNames.get(random.nextInt(this.teamNames.size()));
+            long start = System.nanoTime();
+            switch (operation) {
+                case 0:
+                    this.reader.getDivisions(new ArrayList<>());
+                    break;
+                case 1:
+                    this.reader.getTeams(division, new ArrayList<>());
+                    break;
+                default:
+                    this.reader.getTeamInfo(teamName);
+                    break;
+            }
+            now = System.nanoTime();
+            histograms[operation].record(now - start);
+        }
+        return histograms;
+    }
+
+    /**
+     * Latencies of one run, per operation
+     */
+    public static class Report {
+
+        private final int clients;
+        private final LatencyHistogram[] histograms = new LatencyHistogram[OPERATIONS.length];
+        private long elapsedNanos;
+
+        Report(int clients) {
+            this.clients = clients;
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                this.histograms[i] = new LatencyHistogram();
+            }
+        }
+
+        /**
+         * @param operation one of OPERATIONS
+         * @return latencies of that operation
+         */
+        public LatencyHistogram getHistogram(String operation) {
+            return this.histograms[Arrays.asList(OPERATIONS).indexOf(operation)];
+        }
+
+        /**
+         * @return latencies of all operations together
+         */
+        public LatencyHistogram getTotal() {
+            LatencyHistogram total = new LatencyHistogram();
+            for (LatencyHistogram histogram : this.histograms) {
+                total.merge(histogram);
+            }
+            return total;
+        }
+
+        /**
+         * @return wall-clock time of the measured run
+         */
+        public long getElapsedNanos() {
+            return this.elapsedNanos;
+        }
+
+        /**
+         * @return counts, operations per second and latencies in
+         * microseconds, overall and per operation
+         */
+        public LinkedHashMap<String, Object> toMap() {
+            LinkedHashMap<String, Object> map = new LinkedHashMap<>();
+            map.put("clients", this.clients);
+            map.put("seconds", this.elapsedNanos / 1e9);
+            map.put("total", this.summarize(this.getTotal()));
+            LinkedHashMap<String, Object> operations = new LinkedHashMap<>();
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                if (this.histograms[i].getCount() > 0) {
+                    operations.put(OPERATIONS[i], this.summarize(this.histograms[i]));
+                }
+            }
+            map.put("operations", operations);
+            return map;
+        }
+
+        private LinkedHashMap<String, Object> summarize(LatencyHistogram histogram) {
+            LinkedHashMap<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", histogram.getCount());
+            summary.put("throughput", histogram.getCount() * 1e9 / Math.max(this.elapsedNanos, 1));
+            summary.put("mean_us", histogram.getMean() / 1000);
+            for (int p = 0; p < PERCENTILES.length; p++) {
+                summary.put(PERCENTILE_NAMES[p] + "_us", histogram.getValueAtPercentile(PERCENTILES[p]) / 1000.0);
+            }
+            summary.put("max_us", histogram.getMax() / 1000.0);
+            return summary;
+        }
+
+        /**
+         * @return the report as one line of JSON
+         */
+        @Override
+        public String toString() {
+            try {
+                return new ObjectMapper().writeValueAsString(this.toMap());
+            } catch (JsonProcessingException ex) {
+                Logger.getLogger(LoadGenerator.class.getName()).log(Level.SEVERE, null, ex);
+            }
+            return String.valueOf(this.toMap());
+        }
+    }
+
+    /**
+     * @param args the command line arguments:
+     * [db_filename] [clients] [seconds] [mix] [concurrent|snapshot]
+     */
+    public static void main(String[] args) {
+        String db_filename = "mlb.sqlite";
+        int clients = DEFAULT_CLIENTS;
+        double seconds = DEFAULT_SECONDS;
+        String mix = DEFAULT_MIX;
+        String kind = "concurrent";
+        if (args != null && args.length != 0) {
+            db_filename = args[0];
+        }
+        if (args != null && args.length > 1) {
+            clients = Integer.parseInt(args[1]);
+        }
+        if (args != null && args.length > 2) {
+            seconds = Double.parseDouble(args[2]);
+        }
+        if (args != null && args.length > 3) {
+            mix = args[3];
+        }
+        if (args != null && args.length > 4) {
+            kind = args[4];
+        }
+
+        DatabaseReader reader;
+        if (kind.equals("concurrent")) {
+            reader = new ConcurrentDatabaseReader(db_filename, Math.min(clients, ConcurrentDatabaseReader.DEFAULT_POOL_SIZE),
+                    Boolean.getBoolean(ConcurrentDatabaseReader.WAL_PROPERTY));
+        } else if (kind.equals("snapshot")) {
+            reader = new SnapshotDatabaseReader(db_filename);
+        } else {
+            throw new IllegalArgumentException("Reader must be concurrent or snapshot, not " + kind);
+        }
+        try {
+            LoadGenerator generator = new LoadGenerator(reader, mix);
+            Report report = generator.run(clients, (long) (seconds * 1000), System.nanoTime());
+            LinkedHashMap<String, Object> output = new LinkedHashMap<>();
+            output.put("reader", kind);
+            output.put("mix", parseMix(mix));
+            output.putAll(report.toMap());
+            System.out.println(new ObjectMapper().writeValueAsString(output));
+        } catch (ExecutionException | InterruptedException ex) {
+            if (ex instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Logger.getLogger(LoadGenerator.class.getName()).log(Level.SEVERE, null, ex);
+            LinkedHashMap<String, Object> output = new LinkedHashMap<>();
+            output.put("reader", kind);
+            output.put("error", String.valueOf(ex instanceof ExecutionException ? ex.getCause() : ex));
+            try {
+                System.out.println(new ObjectMapper().writeValueAsString(output));
+            } catch (JsonProcessingException jex) {
+                Logger.getLogger(LoadGenerator.class.getName()).log(Level.SEVERE, null, jex);
+            }
+            reader.close();
+            System.exit(1);
+        } catch (JsonProcessingException ex) {
+            Logger.getLogger(LoadGenerator.class.getName()).log(Level.SEVERE, null, ex);
+        } finally {
+            reader.close();
+        }
+    }
+}
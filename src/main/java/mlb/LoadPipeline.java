@@ -0,0 +1,239 @@
+package mlb;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Overlaps parsing with writing. Parser threads push records into a bounded
+ * queue, blocking when it is full, and the calling thread is the single
+ * SQLite writer that drains it and commits every batchSize rows.
+ *
+ * Teams are parsed and written first: they are small and every address and
+ * player needs their primary keys.
+ */
+public class LoadPipeline {
+
+    private static final Object END = new Object();
+    private static final long POLL_MILLIS = 100;
+
+    private final DatabaseWriter writer;
+    private final int queueCapacity;
+    private final int batchSize;
+
+    /**
+     * Class constructor
+     *
+     * @param writer
+     * @param queueCapacity records buffered between the parsers and the writer
+     * @param batchSize rows per transaction
+     */
+    public LoadPipeline(DatabaseWriter writer, int queueCapacity, int batchSize) {
+        this.writer = writer;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Load all three files into tables that already exist
+     *
+     * @param db_connection connection with auto-commit off
+     * @param teamFilename (JSON file)
+     * @param addressFilename (TXT file)
+     * @param playerFilename (CSV file)
+     * @return Summary of the load
+     * @throws SQLException if writing fails
+     * @throws IOException if a parser fails
+     */
+    public Summary run(Connection db_connection, String teamFilename, String addressFilename, String playerFilename)
+            throws SQLException, IOException {
+        long start = System.nanoTime();
+        Summary summary = new Summary();
+        ArrayList<Team> league = writer.readTeamFromJson(teamFilename);
+        writer.writeTeamTable(db_connection, league);
+        db_connection.commit();
+        summary.teams = league.size();
+        HashMap<String, Integer> teamKeys = writer.readTeamKeys(db_connection);
+
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService parsers = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "load-parser");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ArrayList<Future<Integer>> parsed = new ArrayList<>();
+        parsed.add(parsers.submit(() -> {
+            try (Stream<Address> addressBook = writer.streamAddressesFromTxt(addressFilename)) {
+                return produce(queue, addressBook::iterator).call();
+            }
+        }));
+        parsed.add(parsers.submit(() -> {
+            try (Stream<Player> roster = writer.streamPlayersFromCsv(playerFilename)) {
+                return produce(queue, roster::iterator).call();
+            }
+        }));
+
+        try (PreparedStatement addressInsert = db_connection.prepareStatement(DatabaseWriter.INSERT_ADDRESS_SQL);
+                PreparedStatement playerInsert = db_connection.prepareStatement(DatabaseWriter.INSERT_PLAYER_SQL)) {
+            int finished = 0;
+            int pending = 0;
+            while (finished < parsed.size()) {
+                Object record = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (record == null) {
+                    checkParsers(parsed);
+                    continue;
+                }
+                if (record == END) {
+                    finished++;
+                    continue;
+                }
+                if (record instanceof Player) {
+                    if (!DatabaseWriter.bindPlayer(playerInsert, (Player) record, teamKeys)) {
+                        summary.skipped++;
+                        continue;
+                    }
+                    playerInsert.addBatch();
+                    summary.players++;
+                } else {
+                    if (!DatabaseWriter.bindAddress(addressInsert, (Address) record, teamKeys)) {
+                        summary.skipped++;
+                        continue;
+                    }
+                    addressInsert.addBatch();
+                    summary.addresses++;
+                }
+                if (++pending == batchSize) {
+                    addressInsert.executeBatch();
+                    playerInsert.executeBatch();
+                    db_connection.commit();
+                    summary.transactions++;
+                    pending = 0;
+                }
+            }
+            addressInsert.executeBatch();
+            playerInsert.executeBatch();
+            db_connection.commit();
+            summary.transactions++;
+            checkParsers(parsed);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Load interrupted", ex);
+        } finally {
+            parsers.shutdownNow();
+        }
+        summary.elapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    /**
+     * @return a task that puts every record on the queue followed by END
+     */
+    private static <T> Callable<Integer> produce(BlockingQueue<Object> queue, Callable<Iterator<T>> source) {
+        return () -> {
+            int count = 0;
+            Iterator<T> records = source.call();
+            while (records.hasNext()) {
+                queue.put(records.next());
+                count++;
+            }
+            queue.put(END);
+            return count;
+        };
+    }
+
+    /**
+     * Rethrow the failure of any parser that has stopped
+     */
+    private static void checkParsers(ArrayList<Future<Integer>> parsed) throws IOException, InterruptedException {
+        for (Future<Integer> parser : parsed) {
+            if (!parser.isDone()) {
+                continue;
+            }
+            try {
+                parser.get();
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof UncheckedIOException) {
+                    cause = cause.getCause();
+                }
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException("Parser failed", cause);
+            }
+        }
+    }
+
+    /**
+     * Counts and timing of one pipeline run
+     */
+    public static class Summary {
+
+        private int teams;
+        private int addresses;
+        private int players;
+        private int skipped;
+        private int transactions;
+        private long elapsedNanos;
+
+        /**
+         * @return Teams written
+         */
+        public int getTeams() {
+            return this.teams;
+        }
+
+        /**
+         * @return Addresses written
+         */
+        public int getAddresses() {
+            return this.addresses;
+        }
+
+        /**
+         * @return Players written
+         */
+        public int getPlayers() {
+            return this.players;
+        }
+
+        /**
+         * @return Records dropped because their team is unknown
+         */
+        public int getSkipped() {
+            return this.skipped;
+        }
+
+        /**
+         * @return Transactions committed for addresses and players
+         */
+        public int getTransactions() {
+            return this.transactions;
+        }
+
+        /**
+         * @return Summary as a String
+         */
+        @Override
+        public String toString() {
+            long rows = (long) teams + addresses + players;
+            return rows + " rows (" + teams + " teams, " + addresses + " addresses, " + players + " players, "
+                    + skipped + " skipped) in " + transactions + " transactions, " + elapsedNanos / 1000000 + " ms ("
+                    + (long) (rows * 1e9 / Math.max(elapsedNanos, 1)) + " rows/sec)";
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package mlb;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/**
+ * Team logos decoded once and scaled to the size of the GUI logo label. The
+ * JPEG is fetched through the AsyncDatabaseReader and decoded on a background
+ * thread; the ready ImageIcon is kept in an LRU map bounded by the memory its
+ * pixels take. A logo being fetched or decoded is not fetched again: later
+ * requests for it wait on the same decode. Icons are keyed by team id, so
+ * invalidate() must be called whenever the database changes.
+ */
+public class LogoImageCache implements AutoCloseable {
+
+    public static final int WIDTH = 79;
+    public static final int HEIGHT = 76;
+    /* Room for about 170 scaled logos */
+    public static final long DEFAULT_MAX_BYTES = 4L << 20;
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, ImageIcon> icons = new LinkedHashMap<>(16, 0.75f, true);
+    /* Logos being fetched and decoded, by team id */
+    private final HashMap<String, CompletableFuture<ImageIcon>> pending = new HashMap<>();
+    private final ExecutorService decoder;
+    private long bytes = 0;
+    private long hits = 0;
+    private long misses = 0;
+    /* Bumped by invalidate(); icons decoded from older logos are not kept */
+    private long generation = 0;
+
+    /**
+     * Class constructor
+     *
+     * @param maxBytes most pixel memory held by cached icons
+     */
+    public LogoImageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        this.decoder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "logo-decoder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param team
+     * @param reader used to fetch the logo when it is not cached
+     * @return the scaled logo, or null if the team has none
+     */
+    public CompletableFuture<ImageIcon> getIcon(Team team, AsyncDatabaseReader reader) {
+        String key = team.getId();
+        long requested;
+        CompletableFuture<ImageIcon> decoding;
+        synchronized (this) {
+            ImageIcon icon = icons.get(key);
+            if (icon != null) {
+                hits++;
+                return CompletableFuture.completedFuture(icon);
+            }
+            decoding = pending.get(key);
+            if (decoding != null) {
+                hits++;
+                return decoding.copy();
+            }
+            misses++;
+            requested = generation;
+            decoding = new CompletableFuture<>();
+            pending.put(key, decoding);
+        }
+        CompletableFuture<ImageIcon> result = decoding;
+        reader.getLogo(team).thenApplyAsync(LogoImageCache::decode, decoder).whenComplete((icon, ex) -> {
+            this.finish(key, result, icon, requested);
+            if (ex != null) {
+                result.completeExceptionally(ex);
+            } else {
+                result.complete(icon);
+            }
+        });
+        return result.copy();
+    }
+
+    /**
+     * A decode is over: cache its icon, if any, before anyone is told
+     */
+    private synchronized void finish(String key, CompletableFuture<ImageIcon> decoding, ImageIcon icon, long requested) {
+        this.pending.remove(key, decoding);
+        if (icon != null) {
+            this.put(key, icon, requested);
+        }
+    }
+
+    /**
+     * Forget every icon. Logos fetched before this call are still decoded
+     * for their callers but not cached, and are not shared with later
+     * requests.
+     */
+    public synchronized void invalidate() {
+        this.icons.clear();
+        this.pending.clear();
+        this.bytes = 0;
+        this.generation++;
+    }
+
+    /**
+     * @return Lookups answered from the cache or from a decode under way
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return Lookups that had to fetch and decode
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return Pixel memory held by cached icons
+     */
+    public synchronized long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Stop the decoder thread
+     */
+    @Override
+    public void close() {
+        decoder.shutdown();
+    }
+
+    /**
+     * Decode a logo and scale it to fit WIDTH x HEIGHT, keeping its aspect ratio
+     *
+     * @param logo JPEG (or any ImageIO format) bytes
+     * @return the scaled logo or null if it cannot be decoded
+     */
+    static ImageIcon decode(byte[] logo) {
+        if (logo == null) {
+            return null;
+        }
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(logo));
+            if (source == null) {
+                return null;
+            }
+            double scale = Math.min((double) WIDTH / source.getWidth(), (double) HEIGHT / source.getHeight());
+            int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D graphics = scaled.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, null);
+            graphics.dispose();
+            return new ImageIcon(scaled);
+        } catch (IOException ex) {
+            Logger.getLogger(LogoImageCache.class.getName()).log(Level.SEVERE, null, ex);
+        }
+        return null;
+    }
+
+    /**
+     * Cache an icon, evicting the least recently used ones over maxBytes,
+     * unless the cache was invalidated since its logo was requested
+     */
+    private synchronized void put(String key, ImageIcon icon, long requested) {
+        if (requested != this.generation) {
+            return;
+        }
+        ImageIcon previous = icons.put(key, icon);
+        if (previous != null) {
+            bytes -= size(previous);
+        }
+        bytes += size(icon);
+        Iterator<Map.Entry<String, ImageIcon>> eldest = icons.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            ImageIcon evicted = eldest.next().getValue();
+            if (evicted == icon) {
+                break;
+            }
+            bytes -= size(evicted);
+            eldest.remove();
+        }
+    }
+
+    /**
+     * @return bytes of ARGB pixels behind an icon
+     */
+    private static long size(ImageIcon icon) {
+        return 4L * icon.getIconWidth() * icon.getIconHeight();
+    }
+}
@@ -0,0 +1,93 @@
+package mlb;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Reads logo files in the background. Each file is read at most once, and
+ * files with identical content share a single byte array in memory. This
+ * saves memory and reads only: team.logo still holds one copy of the image
+ * per team.
+ */
+public class LogoLoader implements AutoCloseable {
+
+    private final ExecutorService executor;
+    private final ConcurrentHashMap<String, CompletableFuture<byte[]>> byFilename = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, byte[]> byHash = new ConcurrentHashMap<>();
+
+    /**
+     * Class constructor
+     *
+     * @param threads number of concurrent file reads
+     */
+    public LogoLoader(int threads) {
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "logo-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start reading a logo file
+     *
+     * @param filename
+     * @return the bytes of the file, or null if it cannot be read
+     */
+    public CompletableFuture<byte[]> load(String filename) {
+        return byFilename.computeIfAbsent(filename,
+                name -> CompletableFuture.supplyAsync(() -> read(name), executor));
+    }
+
+    /**
+     * @return number of distinct logo images held in memory so far
+     */
+    public int getDistinctLogos() {
+        return byHash.size();
+    }
+
+    /**
+     * @param team
+     * @return the file name of the team logo
+     */
+    public static String logoFileName(Team team) {
+        return "./images/mlb/logo_" + team.getAbbreviation().toLowerCase() + ".jpg";
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private byte[] read(String filename) {
+        try {
+            byte[] data = Files.readAllBytes(Paths.get(filename));
+            return byHash.computeIfAbsent(hash(data), key -> data);
+        } catch (IOException ex) {
+            Logger.getLogger(LogoLoader.class.getName()).log(Level.WARNING, "Cannot read logo {0}", filename);
+            return null;
+        }
+    }
+
+    /**
+     * @param data
+     * @return SHA-256 of the data as a hex string
+     */
+    public static String hash(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package mlb;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Builds a database away from its file and swaps it in when it is complete.
+ * Tables, rows and indexes are written to a private in-memory database (or a
+ * temporary one that SQLite may spill to disk), where commits cost no fsync.
+ * publish() then copies it page by page into a new file next to the target
+ * with SQLite's online backup API and renames that file over the target, so
+ * a reader opening the target sees either the old database or the whole new
+ * one. A DatabaseReader notices the rename on its next query and reopens on
+ * the new file; other connections already open keep reading the old one.
+ * A failed or abandoned build leaves the target as it was.
+ */
+public class MemoryBuild implements AutoCloseable {
+
+    private final Connection db_connection;
+    private final Path target;
+    private Path building;
+
+    /**
+     * Start an in-memory build
+     *
+     * @param db_filename database file in data/mlb to replace on publish()
+     * @throws SQLException
+     */
+    public MemoryBuild(String db_filename) throws SQLException {
+        this(db_filename, false);
+    }
+
+    /**
+     * Start a build
+     *
+     * @param db_filename database file in data/mlb to replace on publish()
+     * @param spillToDisk build in a temporary database that may page out to
+     * disk instead of one held wholly in memory
+     * @throws SQLException
+     */
+    public MemoryBuild(String db_filename, boolean spillToDisk) throws SQLException {
+        this.target = Paths.get("data/mlb", db_filename).toAbsolutePath();
+        /* An empty filename is a private temporary database */
+        this.db_connection = DriverManager.getConnection(spillToDisk ? "jdbc:sqlite:" : "jdbc:sqlite::memory:");
+        Statement statement = this.db_connection.createStatement();
+        statement.execute("PRAGMA foreign_keys = ON;");
+        statement.execute("PRAGMA synchronous = OFF;");
+        statement.execute("PRAGMA temp_store = MEMORY;");
+        statement.execute("PRAGMA cache_size = " + IngestSession.BULK_CACHE_SIZE + ";");
+        statement.close();
+        this.db_connection.setAutoCommit(false);
+    }
+
+    /**
+     * @return the build connection; auto-commit is off
+     */
+    public Connection getConnection() {
+        return this.db_connection;
+    }
+
+    /**
+     * Commit everything written so far
+     *
+     * @throws SQLException
+     */
+    public void commit() throws SQLException {
+        this.db_connection.commit();
+    }
+
+    /**
+     * Commit, refresh the planner statistics, back the database up to a new
+     * file beside the target and rename it over the target.
+     *
+     * A target with a write-ahead log is a WAL database that may be open:
+     * SQLite would replay the old file's log over a renamed-in file. It is
+     * instead overwritten by the backup itself, which copies every page in a
+     * single write transaction, so its readers also see the old or the new
+     * database and never a mix.
+     *
+     * @return the file that was replaced
+     * @throws SQLException if the backup fails; the target is left untouched
+     * @throws IOException if the rename fails; the target is left untouched
+     */
+    public Path publish() throws SQLException, IOException {
+        this.db_connection.commit();
+        this.db_connection.setAutoCommit(true);
+        Statement statement = this.db_connection.createStatement();
+        try {
+            statement.execute("ANALYZE;");
+            Files.createDirectories(this.target.getParent());
+            if (Files.exists(this.target.resolveSibling(this.target.getFileName() + "-wal"))) {
+                backup(statement, this.target);
+                return this.target;
+            }
+            this.building = Files.createTempFile(this.target.getParent(), this.target.getFileName() + ".", ".building");
+            backup(statement, this.building);
+            Files.move(this.building, this.target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            this.building = null;
+            return this.target;
+        } finally {
+            statement.close();
+            this.db_connection.setAutoCommit(false);
+        }
+    }
+
+    /**
+     * Copy the build into a file with SQLite's online backup API, through
+     * sqlite-jdbc's "backup to" statement
+     */
+    private static void backup(Statement statement, Path file) throws SQLException {
+        statement.executeUpdate("backup to \"" + file + "\"");
+    }
+
+    /**
+     * Drop the build and any half-written copy
+     *
+     * @throws SQLException
+     */
+    @Override
+    public void close() throws SQLException {
+        try {
+            if (this.building != null) {
+                Files.deleteIfExists(this.building);
+            }
+        } catch (IOException ex) {
+            throw new SQLException("Cannot remove " + this.building, ex);
+        } finally {
+            this.db_connection.close();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package mlb;
+
+
+/**
+ * What DatabaseReaderGUI loads in the background once a division's teams are
+ * listed. Chosen with the mlb.prefetch system property, e.g.
+ * -Dmlb.prefetch=OFF
+ */
+public enum PrefetchPolicy {
+    /** Load nothing ahead of a click */
+    OFF,
+    /**
+     * Load the teams, their addresses, roster sizes and the first page of
+     * each roster that RosterTableModel shows
+     */
+    ROSTERS,
+    /** Load what ROSTERS does, then decode the teams' logos */
+    ROSTERS_AND_LOGOS;
+
+    public static final String PROPERTY = "mlb.prefetch";
+
+    /**
+     * @return the policy named by the mlb.prefetch property, ROSTERS_AND_LOGOS
+     * if it is unset or unknown
+     */
+    public static PrefetchPolicy fromProperty() {
+        String value = System.getProperty(PROPERTY, ROSTERS_AND_LOGOS.name());
+        try {
+            return PrefetchPolicy.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return ROSTERS_AND_LOGOS;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package mlb;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * CSV reader that only materializes the columns it was asked for. Columns are
+ * selected by header name; every other field is skipped byte by byte without
+ * creating a String for it. Blank lines are skipped; rows too short to hold
+ * every selected column are logged, counted and skipped.
+ */
+public class ProjectedCsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream in;
+    private final Charset charset;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private byte[] field = new byte[256];
+    private int fieldLength = 0;
+    private final String[] header;
+    private final int[] slots;
+    private final int width;
+    private long lineNumber = 0;
+    private int malformed = 0;
+    /* Selected columns found in the last record, and whether it was blank */
+    private int kept = 0;
+    private boolean blank = false;
+
+    /**
+     * Class constructor. Text is decoded with the platform charset, like FileReader.
+     *
+     * @param filename (CSV file with a header row)
+     * @param columns header names to keep, in the order they are returned
+     * @throws IOException
+     */
+    public ProjectedCsvReader(String filename, String... columns) throws IOException {
+        this(new FileInputStream(filename), Charset.defaultCharset(), columns);
+    }
+
+    /**
+     * Class constructor
+     *
+     * @param in (CSV data with a header row)
+     * @param charset
+     * @param columns header names to keep, in the order they are returned
+     * @throws IOException
+     */
+    public ProjectedCsvReader(InputStream in, Charset charset, String... columns) throws IOException {
+        this.in = in;
+        this.charset = charset;
+        ArrayList<String> names = new ArrayList<>();
+        if (!scanRecord(null, null, names)) {
+            in.close();
+            throw new IOException("Missing header row");
+        }
+        this.header = names.toArray(new String[0]);
+        this.slots = new int[header.length];
+        Arrays.fill(this.slots, -1);
+        for (int i = 0; i < columns.length; i++) {
+            int index = names.indexOf(columns[i]);
+            if (index < 0) {
+                in.close();
+                throw new IllegalArgumentException("No column named " + columns[i]);
+            }
+            this.slots[index] = i;
+        }
+        this.width = columns.length;
+    }
+
+    /**
+     * @return all column names found in the header
+     */
+    public String[] getHeader() {
+        return this.header.clone();
+    }
+
+    /**
+     * @return number of the last line read, the header being line 1
+     */
+    public long getLineNumber() {
+        return this.lineNumber;
+    }
+
+    /**
+     * @return number of rows skipped so far for missing a selected column
+     */
+    public int getMalformed() {
+        return this.malformed;
+    }
+
+    /**
+     * Read the next record that has every selected column
+     *
+     * @return projected values or null at the end of the file
+     * @throws IOException
+     */
+    public String[] readNext() throws IOException {
+        while (true) {
+            String[] values = new String[width];
+            if (!scanRecord(slots, values, null)) {
+                return null;
+            }
+            if (this.blank) {
+                continue;
+            }
+            if (this.kept == width) {
+                return values;
+            }
+            malformed++;
+            Logger.getLogger(ProjectedCsvReader.class.getName()).log(Level.WARNING,
+                    "Line {0}: expected {1} selected columns, found {2}", new Object[] { lineNumber, width, kept });
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Scan one record. A field at index i is kept in values[slots[i]] when that
+     * slot is not negative, or appended to all when slots is null.
+     *
+     * @return false at the end of the file
+     */
+    private boolean scanRecord(int[] slots, String[] values, List<String> all) throws IOException {
+        int c = nextByte();
+        if (c == -1) {
+            return false;
+        }
+        lineNumber++;
+        kept = 0;
+        int index = 0;
+        while (true) {
+            int slot = slots == null ? 0 : index < slots.length ? slots[index] : -1;
+            boolean keep = slot >= 0;
+            fieldLength = 0;
+            boolean quoted = c == '"';
+            int length = 0;
+            if (quoted) {
+                while (true) {
+                    c = nextByte();
+                    if (c == -1) {
+                        break;
+                    }
+                    if (c == '"') {
+                        c = nextByte();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    if (keep) {
+                        append(c);
+                    }
+                }
+                while (c != ',' && c != '\n' && c != -1) {
+                    c = nextByte();
+                }
+            } else {
+                int last = -1;
+                while (c != ',' && c != '\n' && c != -1) {
+                    if (keep) {
+                        append(c);
+                    }
+                    last = c;
+                    length++;
+                    c = nextByte();
+                }
+                if (c != ',' && last == '\r') {
+                    length--;
+                    if (keep) {
+                        fieldLength--;
+                    }
+                }
+            }
+            if (keep) {
+                String value = new String(field, 0, fieldLength, charset);
+                if (slots == null) {
+                    all.add(value);
+                } else {
+                    values[slot] = value;
+                    kept++;
+                }
+            }
+            if (c != ',') {
+                blank = index == 0 && !quoted && length == 0;
+                return true;
+            }
+            index++;
+            c = nextByte();
+        }
+    }
+
+    private int nextByte() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private void append(int c) {
+        if (fieldLength == field.length) {
+            field = Arrays.copyOf(field, fieldLength * 2);
+        }
+        field[fieldLength++] = (byte) c;
+    }
+}
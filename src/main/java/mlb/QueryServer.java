@@ -0,0 +1,349 @@
+package mlb;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read-only HTTP/JSON service over the mlb database, built on the JDK's
+ * com.sun.net.httpserver. Endpoints (GET or HEAD):
+ *
+ * /api/divisions, /api/teams?division=, /api/team?name=,
+ * /api/roster?team=&sort=&order=&offset=&limit= and /api/logo?id=
+ *
+ * Every response carries an ETag computed from its body and is answered with
+ * 304 Not Modified when If-None-Match matches. Bodies of GZIP_MIN_BYTES or
+ * more are gzipped for clients that accept it, under an ETag of their own.
+ * Requests run on a fixed pool of daemon threads, so the reader must be safe
+ * for concurrent use, e.g. a ConcurrentDatabaseReader.
+ */
+public class QueryServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_THREADS = 4 * Runtime.getRuntime().availableProcessors();
+    public static final int GZIP_MIN_BYTES = 512;
+    public static final int DEFAULT_ROSTER_LIMIT = 50;
+    public static final int MAX_ROSTER_LIMIT = 500;
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        /* The JDK server writes headers and body separately; with Nagle on,
+         * every keep-alive response waits ~40 ms for a delayed ACK */
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final DatabaseReader reader;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Class constructor. The server does not accept requests until start().
+     *
+     * @param reader shared by all request threads
+     * @param port 0 picks a free port
+     * @param threads request threads
+     * @throws IOException if the port cannot be bound
+     */
+    public QueryServer(DatabaseReader reader, int port, int threads) throws IOException {
+        this.reader = reader;
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mlb-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server.setExecutor(this.executor);
+        this.addEndpoint("/api/divisions", JSON, parameters -> {
+            ArrayList<String> divisions = new ArrayList<>();
+            this.reader.getDivisions(divisions);
+            return divisions;
+        });
+        this.addEndpoint("/api/teams", JSON, parameters -> {
+            String confDiv = required(parameters, "division");
+            if (confDiv.split(" | ").length < 3) {
+                throw new IllegalArgumentException("division must look like \"National | Central\"");
+            }
+            ArrayList<String> teams = new ArrayList<>();
+            this.reader.getTeams(confDiv, teams);
+            return teams;
+        });
+        this.addEndpoint("/api/team", JSON, parameters -> this.reader.getTeamInfo(required(parameters, "name")));
+        this.addEndpoint("/api/roster", JSON, parameters -> {
+            String teamName = required(parameters, "team");
+            String order = parameters.getOrDefault("order", "asc");
+            if (!order.equals("asc") && !order.equals("desc")) {
+                throw new IllegalArgumentException("order must be asc or desc");
+            }
+            int offset = number(parameters, "offset", 0, Integer.MAX_VALUE);
+            int limit = number(parameters, "limit", DEFAULT_ROSTER_LIMIT, MAX_ROSTER_LIMIT);
+            ArrayList<Player> page = this.reader.getRosterPage(teamName, parameters.getOrDefault("sort", "name"),
+                    order.equals("asc"), offset, limit);
+            return page.isEmpty() && this.reader.getRosterSize(teamName) == 0 ? null : page;
+        });
+        this.addEndpoint("/api/logo", "image/png", parameters -> {
+            byte[] logo = this.reader.getLogo(required(parameters, "id"));
+            return logo == null || logo.length == 0 ? null : logo;
+        });
+    }
+
+    /**
+     * Start accepting requests
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Stop accepting requests, give running ones a second to finish and stop
+     * the request threads. The reader is left open.
+     */
+    @Override
+    public void close() {
+        this.server.stop(1);
+        this.executor.shutdown();
+    }
+
+    /**
+     * A lookup that turns query parameters into a response body
+     */
+    interface Endpoint {
+
+        /**
+         * @param parameters decoded query parameters
+         * @return value to serialize as JSON, or bytes for other content
+         * types, or null for 404 Not Found
+         * @throws IllegalArgumentException for 400 Bad Request
+         */
+        Object handle(Map<String, String> parameters);
+    }
+
+    private void addEndpoint(String path, String contentType, Endpoint endpoint) {
+        this.server.createContext(path, exchange -> {
+            try {
+                if (!this.allowed(exchange)) {
+                    return;
+                }
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    this.sendError(exchange, 404, "Not found");
+                    return;
+                }
+                Object value = endpoint.handle(query(exchange));
+                if (value == null) {
+                    this.sendError(exchange, 404, "Not found");
+                } else if (contentType.equals(JSON)) {
+                    this.send(exchange, 200, contentType, MAPPER.writeValueAsBytes(value));
+                } else {
+                    this.send(exchange, 200, contentType, (byte[]) value);
+                }
+            } catch (IllegalArgumentException ex) {
+                this.sendError(exchange, 400, ex.getMessage());
+            } catch (RuntimeException ex) {
+                Logger.getLogger(QueryServer.class.getName()).log(Level.SEVERE, null, ex);
+                this.sendError(exchange, 500, "Internal error");
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    /**
+     * @return true for GET and HEAD; anything else is answered with 405
+     */
+    private boolean allowed(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (method.equals("GET") || method.equals("HEAD")) {
+            return true;
+        }
+        exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+        this.sendError(exchange, 405, "Method not allowed");
+        return false;
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        HashMap<String, String> error = new HashMap<>();
+        error.put("error", message);
+        this.send(exchange, status, JSON, MAPPER.writeValueAsBytes(error));
+    }
+
+    /**
+     * Send a body with its ETag, or 304 if the client already has it; gzip
+     * it if the client accepts that and it is large enough to be worth it
+     */
+    private void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        boolean gzipped = body.length >= GZIP_MIN_BYTES
+                && acceptsGzip(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        if (status == 200) {
+            String etag = etag(body, gzipped);
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.getResponseHeaders().set("Vary", "Accept-Encoding");
+            if (matches(exchange.getRequestHeaders().getFirst("If-None-Match"), etag)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+        }
+        if (gzipped) {
+            body = gzip(body);
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        if (exchange.getRequestMethod().equals("HEAD")) {
+            exchange.getResponseHeaders().set("Content-Length", Integer.toString(body.length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * @param body the body before any gzip
+     * @param gzipped whether the body is sent gzipped
+     * @return a strong ETag: the first 128 bits of the body's SHA-256, with
+     * -gz for the gzipped bytes, which differ from the identity bytes
+     */
+    static String etag(byte[] body, boolean gzipped) {
+        return "\"" + LogoLoader.hash(body).substring(0, 32) + (gzipped ? "-gz" : "") + "\"";
+    }
+
+    /**
+     * @param ifNoneMatch If-None-Match header or null
+     * @param etag
+     * @return true if the header lists etag (weak or strong) or is *
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param acceptEncoding Accept-Encoding header or null
+     * @return true if gzip is listed without q=0
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * @return decoded query parameters; the last value wins
+     */
+    static HashMap<String, String> query(HttpExchange exchange) {
+        return parseQuery(exchange.getRequestURI().getRawQuery());
+    }
+
+    static HashMap<String, String> parseQuery(String rawQuery) {
+        HashMap<String, String> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+
+    private static String required(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter " + name);
+        }
+        return value;
+    }
+
+    private static int number(Map<String, String> parameters, String name, int defaultValue, int max) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int number = Integer.parseInt(value);
+            if (number >= 0 && number <= max) {
+                return number;
+            }
+        } catch (NumberFormatException ex) {
+            // reported below
+        }
+        throw new IllegalArgumentException(name + " must be a number from 0 to " + max);
+    }
+
+    /**
+     * @param args the command line arguments: [db_filename] [port]
+     */
+    public static void main(String[] args) throws IOException {
+        String db_filename = "mlb.sqlite";
+        int port = DEFAULT_PORT;
+        if (args != null && args.length != 0) {
+            db_filename = args[0];
+        }
+        if (args != null && args.length > 1) {
+            port = Integer.parseInt(args[1]);
+        }
+        ConcurrentDatabaseReader reader = new ConcurrentDatabaseReader(db_filename, ConcurrentDatabaseReader.DEFAULT_POOL_SIZE,
+                Boolean.getBoolean(ConcurrentDatabaseReader.WAL_PROPERTY));
+        QueryServer server = new QueryServer(reader, port, DEFAULT_THREADS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            reader.close();
+        }));
+        server.start();
+        System.out.println("Serving data/mlb/" + db_filename + " on http://localhost:" + server.getPort() + "/api/divisions");
+    }
+}
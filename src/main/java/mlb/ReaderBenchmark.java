@@ -0,0 +1,92 @@
+package mlb;
+
+import java.util.ArrayList;
+
+/**
+ * Compares startup time and getTeamInfo latency of the plain, cached and
+ * snapshot readers over every team in the league.
+ */
+public class ReaderBenchmark {
+
+    public static final int DEFAULT_ROUNDS = 1000;
+
+    /**
+     * @param args the command line arguments: [db_filename] [rounds]
+     */
+    public static void main(String[] args) {
+        String db_filename = "mlb.sqlite";
+        int rounds = DEFAULT_ROUNDS;
+        if (args != null && args.length != 0) {
+            db_filename = args[0];
+        }
+        if (args != null && args.length > 1) {
+            rounds = Integer.parseInt(args[1]);
+        }
+
+        long start = System.nanoTime();
+        DatabaseReader plain = new DatabaseReader(db_filename);
+        ArrayList<String> names = teamNames(plain);
+        report("database startup", 1, System.nanoTime() - start);
+        start = System.nanoTime();
+        SnapshotDatabaseReader snapshot = new SnapshotDatabaseReader(db_filename);
+        report("snapshot startup", 1, System.nanoTime() - start);
+        CachedDatabaseReader cached = new CachedDatabaseReader(db_filename, names.size());
+
+        /* Plain lookups hit SQLite every time, so they get fewer rounds */
+        int databaseRounds = Math.max(1, rounds / 100);
+        report("database getTeamInfo", (long) databaseRounds * names.size(), lookups(plain, names, databaseRounds));
+        report("cached getTeamInfo", (long) rounds * names.size(), lookups(cached, names, rounds));
+        report("snapshot getTeamInfo", (long) rounds * names.size(), lookups(snapshot, names, rounds));
+
+        LeagueSnapshot league = snapshot.getSnapshot();
+        int found = 0;
+        start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String teamName : names) {
+                found += league.getPlayers(teamName, "P").size();
+            }
+        }
+        report("snapshot getPlayers", (long) rounds * names.size(), System.nanoTime() - start);
+        System.out.println("pitchers found: " + found / Math.max(rounds, 1));
+
+        plain.close();
+        cached.close();
+        snapshot.close();
+    }
+
+    /**
+     * @return every team name, division by division
+     */
+    private static ArrayList<String> teamNames(DatabaseReader reader) {
+        ArrayList<String> divisions = new ArrayList<>();
+        ArrayList<String> names = new ArrayList<>();
+        reader.getDivisions(divisions);
+        for (String confDiv : divisions) {
+            reader.getTeams(confDiv, names);
+        }
+        return names;
+    }
+
+    /**
+     * Look up every team once to warm up, then rounds more times
+     *
+     * @return nanoseconds taken by the timed rounds
+     */
+    private static long lookups(DatabaseReader reader, ArrayList<String> names, int rounds) {
+        for (String teamName : names) {
+            reader.getTeamInfo(teamName);
+        }
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (String teamName : names) {
+                reader.getTeamInfo(teamName);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String label, long operations, long nanos) {
+        System.out.printf("%-22s %10d ops %12.3f ms %14.1f ns/op%n", label, operations, nanos / 1e6,
+                (double) nanos / Math.max(operations, 1));
+    }
+}
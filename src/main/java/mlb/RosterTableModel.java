@@ -0,0 +1,177 @@
+package mlb;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Roster table that only holds the pages of rows the table has asked for.
+ * Pages are read through an AsyncDatabaseReader when a row is first painted,
+ * shown as a placeholder until they arrive, and the least recently used pages
+ * are dropped. Sorting is done by the database; changing the order simply
+ * forgets every page. Use it from the event dispatch thread only.
+ */
+public class RosterTableModel extends AbstractTableModel {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGES = 64;
+    public static final String LOADING = "...";
+    private static final String[] COLUMN_NAMES = { "Name", "Position" };
+
+    private final AsyncDatabaseReader reader;
+    private final int pageSize;
+    private final LinkedHashMap<Integer, ArrayList<Player>> pages = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ArrayList<Player>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    private final HashSet<Integer> loading = new HashSet<>();
+    private String teamName;
+    private int rowCount = 0;
+    private int sortColumn = 0;
+    private boolean ascending = true;
+    /* Bumped whenever the rows change; older responses are dropped */
+    private int generation = 0;
+
+    /**
+     * Class constructor
+     *
+     * @param reader
+     * @param pageSize rows read per query
+     */
+    public RosterTableModel(AsyncDatabaseReader reader, int pageSize) {
+        this.reader = reader;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Show a team's roster, or nothing
+     *
+     * @param teamName null to clear the table
+     */
+    public void setTeam(String teamName) {
+        this.teamName = teamName;
+        this.rowCount = 0;
+        this.reset();
+        if (teamName == null) {
+            return;
+        }
+        int request = this.generation;
+        reader.submit(db_reader -> db_reader.getRosterSize(teamName)).thenAcceptAsync(size -> {
+            if (request == this.generation) {
+                this.rowCount = size;
+                this.fireTableDataChanged();
+            }
+        }, java.awt.EventQueue::invokeLater);
+    }
+
+    /**
+     * Sort by a column, reversing the order if it is already sorted by it
+     *
+     * @param column model column index
+     */
+    public void sortBy(int column) {
+        if (column < 0 || column >= COLUMN_NAMES.length) {
+            return;
+        }
+        this.ascending = column != this.sortColumn || !this.ascending;
+        this.sortColumn = column;
+        this.reset();
+    }
+
+    /**
+     * @return model column the rows are sorted by
+     */
+    public int getSortColumn() {
+        return this.sortColumn;
+    }
+
+    /**
+     * @return whether the rows are in ascending order
+     */
+    public boolean isAscending() {
+        return this.ascending;
+    }
+
+    /**
+     * @return Pages currently held
+     */
+    public int getLoadedPages() {
+        return this.pages.size();
+    }
+
+    @Override
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column] + (column == this.sortColumn ? (this.ascending ? " \u25B2" : " \u25BC") : "");
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int page = row / this.pageSize;
+        ArrayList<Player> players = this.pages.get(page);
+        if (players == null) {
+            this.load(page);
+            return LOADING;
+        }
+        int index = row % this.pageSize;
+        if (index >= players.size()) {
+            return "";
+        }
+        Player player = players.get(index);
+        return column == 0 ? player.getName() : player.getPosition();
+    }
+
+    /**
+     * Forget every page and repaint
+     */
+    private void reset() {
+        this.generation++;
+        this.pages.clear();
+        this.loading.clear();
+        this.fireTableStructureChanged();
+    }
+
+    /**
+     * Read a page in the background unless it is already on its way
+     */
+    private void load(int page) {
+        if (!this.loading.add(page)) {
+            return;
+        }
+        int request = this.generation;
+        String team = this.teamName;
+        String column = DatabaseReader.ROSTER_SORT_COLUMNS[this.sortColumn];
+        boolean order = this.ascending;
+        reader.submit(db_reader -> db_reader.getRosterPage(team, column, order, page * pageSize, pageSize))
+                .thenAcceptAsync(players -> {
+                    if (request != this.generation) {
+                        return;
+                    }
+                    this.loading.remove(page);
+                    this.pages.put(page, players);
+                    int first = page * this.pageSize;
+                    int last = Math.min(first + this.pageSize, this.rowCount) - 1;
+                    if (last >= first) {
+                        this.fireTableRowsUpdated(first, last);
+                    }
+                }, java.awt.EventQueue::invokeLater);
+    }
+}
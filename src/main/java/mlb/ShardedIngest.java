@@ -0,0 +1,356 @@
+package mlb;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads players on several cores even though SQLite allows one writer per
+ * database. The CSV file is cut into contiguous byte ranges at line breaks
+ * outside quotes; each range is parsed and written by its own thread into its
+ * own temporary SQLite file. The shards are then ATTACHed to the target and
+ * copied into player with INSERT ... SELECT in a single transaction, in file
+ * order, so the table ends up exactly as writePlayerTable would leave it.
+ */
+public class ShardedIngest {
+
+    /* SQLite's default limit on attached databases */
+    public static final int MAX_SHARDS = 10;
+    public static final int DEFAULT_SHARDS = Math.min(MAX_SHARDS, Runtime.getRuntime().availableProcessors());
+    /* Negative cache_size is in KiB: 64 MiB per shard */
+    private static final int SHARD_CACHE_SIZE = -65536;
+    private static final int SCAN_BUFFER_SIZE = 1 << 20;
+
+    private final DatabaseWriter writer;
+    private final int shards;
+    private final int batchSize;
+
+    /**
+     * Class constructor
+     *
+     * @param writer
+     * @param shards threads and temporary files, from 1 to MAX_SHARDS
+     * @param batchSize rows per JDBC batch in each shard, at least 1
+     */
+    public ShardedIngest(DatabaseWriter writer, int shards, int batchSize) {
+        if (shards < 1 || shards > MAX_SHARDS) {
+            throw new IllegalArgumentException("Shards must be from 1 to " + MAX_SHARDS + ", not " + shards);
+        }
+        DatabaseWriter.checkBatchSize(batchSize);
+        this.writer = writer;
+        this.shards = shards;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Load a players CSV file into the player table. The team table must be
+     * loaded already. Anything uncommitted on the connection is committed
+     * first, because SQLite cannot ATTACH inside a transaction.
+     *
+     * @param db_connection connection with auto-commit off; left that way
+     * @param playerFilename (CSV file)
+     * @return Summary of the load
+     * @throws SQLException if writing or merging fails; player is unchanged
+     * @throws IOException if the file cannot be read
+     */
+    public Summary run(Connection db_connection, String playerFilename) throws SQLException, IOException {
+        long start = System.nanoTime();
+        Summary summary = new Summary(this.shards);
+        HashMap<String, Integer> teamKeys = this.writer.readTeamKeys(db_connection);
+        db_connection.commit();
+        Path source = Paths.get(playerFilename);
+        long[] bounds = splitPoints(source, this.shards);
+        byte[] header = readRange(source, 0, bounds[0]);
+
+        Path workDirectory = Files.createTempDirectory("mlb-shards");
+        ArrayList<Path> shardFiles = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(this.shards, runnable -> {
+            Thread thread = new Thread(runnable, "ingest-shard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            ArrayList<Future<int[]>> written = new ArrayList<>();
+            for (int s = 0; s < this.shards; s++) {
+                Path shardFile = workDirectory.resolve("shard" + s + ".sqlite");
+                shardFiles.add(shardFile);
+                long from = bounds[s];
+                long to = bounds[s + 1];
+                written.add(executor.submit(() -> this.writeShard(shardFile, source, header, from, to, teamKeys)));
+            }
+            for (Future<int[]> counts : written) {
+                int[] rows = counts.get();
+                summary.players += rows[0];
+                summary.skipped += rows[1];
+            }
+            summary.writeNanos = System.nanoTime() - start;
+            long mergeStart = System.nanoTime();
+            merge(db_connection, shardFiles);
+            summary.mergeNanos = System.nanoTime() - mergeStart;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Load interrupted", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof UncheckedIOException) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Shard failed", cause);
+        } finally {
+            executor.shutdownNow();
+            for (Path shardFile : shardFiles) {
+                Files.deleteIfExists(shardFile);
+            }
+            Files.deleteIfExists(workDirectory);
+        }
+        summary.elapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    /**
+     * Parse one byte range of the file into a new shard database
+     *
+     * @return rows written and rows skipped for an unknown team
+     */
+    private int[] writeShard(Path shardFile, Path source, byte[] header, long from, long to,
+            HashMap<String, Integer> teamKeys) throws SQLException, IOException {
+        int rows = 0;
+        int skipped = 0;
+        try (Connection shard = DriverManager.getConnection("jdbc:sqlite:" + shardFile)) {
+            Statement statement = shard.createStatement();
+            /* The shard is thrown away if anything fails, so it needs no journal */
+            statement.execute("PRAGMA journal_mode = OFF;");
+            statement.execute("PRAGMA synchronous = OFF;");
+            statement.execute("PRAGMA locking_mode = EXCLUSIVE;");
+            statement.execute("PRAGMA cache_size = " + SHARD_CACHE_SIZE + ";");
+            statement.executeUpdate("CREATE TABLE player (id TEXT NOT NULL, name TEXT NOT NULL,"
+                    + " team TEXT NOT NULL, position TEXT NOT NULL);");
+            statement.close();
+            shard.setAutoCommit(false);
+            InputStream range = new SequenceInputStream(new ByteArrayInputStream(header),
+                    new RangeInputStream(source, from, to));
+            try (ProjectedCsvReader reader = new ProjectedCsvReader(range, Charset.defaultCharset(), DatabaseWriter.PLAYER_COLUMNS);
+                    PreparedStatement insert = shard.prepareStatement(DatabaseWriter.INSERT_PLAYER_SQL)) {
+                String[] row;
+                while ((row = reader.readNext()) != null) {
+                    if (!DatabaseWriter.bindPlayer(insert, new Player(row[0], row[1], row[2], row[3]), teamKeys)) {
+                        skipped++;
+                        continue;
+                    }
+                    insert.addBatch();
+                    if (++rows % this.batchSize == 0) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            shard.commit();
+        }
+        return new int[] { rows, skipped };
+    }
+
+    /**
+     * Copy every shard into player in one transaction, in shard order
+     */
+    private static void merge(Connection db_connection, ArrayList<Path> shardFiles) throws SQLException {
+        db_connection.setAutoCommit(true);
+        Statement statement = db_connection.createStatement();
+        int attached = 0;
+        try {
+            for (Path shardFile : shardFiles) {
+                PreparedStatement attach = db_connection.prepareStatement("ATTACH DATABASE ? AS shard" + attached);
+                attach.setString(1, shardFile.toString());
+                attach.execute();
+                attach.close();
+                attached++;
+            }
+            db_connection.setAutoCommit(false);
+            try {
+                for (int s = 0; s < attached; s++) {
+                    statement.executeUpdate("INSERT INTO main.player (id, name, team, position)"
+                            + " SELECT id, name, team, position FROM shard" + s + ".player ORDER BY rowid;");
+                }
+                db_connection.commit();
+            } catch (SQLException ex) {
+                db_connection.rollback();
+                throw ex;
+            }
+        } finally {
+            db_connection.setAutoCommit(true);
+            for (int s = 0; s < attached; s++) {
+                statement.execute("DETACH DATABASE shard" + s + ";");
+            }
+            statement.close();
+            db_connection.setAutoCommit(false);
+        }
+    }
+
+    /**
+     * Find where to cut a CSV file into shards: the end of the header row,
+     * then the first line break outside quotes at or after every 1/shards of
+     * the rest. Ranges may be empty when the file is small.
+     *
+     * @param file
+     * @param shards
+     * @return shards + 1 offsets; range s is [offsets[s], offsets[s + 1])
+     * @throws IOException
+     */
+    static long[] splitPoints(Path file, int shards) throws IOException {
+        long[] bounds = new long[shards + 1];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            bounds[shards] = size;
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            boolean quoted = false;
+            long offset = 0;
+            int next = 0;
+            long target = 0;
+            while (next < shards && channel.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.hasRemaining() && next < shards) {
+                    byte b = buffer.get();
+                    offset++;
+                    if (b == '"') {
+                        quoted = !quoted;
+                    } else if (b == '\n' && !quoted && offset >= target) {
+                        bounds[next++] = offset;
+                        target = bounds[0] + (size - bounds[0]) * next / shards;
+                    }
+                }
+                buffer.clear();
+            }
+            for (; next < shards; next++) {
+                bounds[next] = size;
+            }
+        }
+        return bounds;
+    }
+
+    private static byte[] readRange(Path file, long from, long to) throws IOException {
+        try (InputStream in = new RangeInputStream(file, from, to)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Bytes [from, to) of a file
+     */
+    private static class RangeInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private long position;
+        private final long end;
+
+        RangeInputStream(Path file, long from, long to) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.position = from;
+            this.end = to;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return this.read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            if (this.position >= this.end) {
+                return -1;
+            }
+            int wanted = (int) Math.min(len, this.end - this.position);
+            int read = this.channel.read(ByteBuffer.wrap(bytes, off, wanted), this.position);
+            if (read > 0) {
+                this.position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Counts and timing of one sharded load
+     */
+    public static class Summary {
+
+        private final int shards;
+        private int players;
+        private int skipped;
+        private long writeNanos;
+        private long mergeNanos;
+        private long elapsedNanos;
+
+        Summary(int shards) {
+            this.shards = shards;
+        }
+
+        /**
+         * @return Players written
+         */
+        public int getPlayers() {
+            return this.players;
+        }
+
+        /**
+         * @return Players dropped because their team is unknown
+         */
+        public int getSkipped() {
+            return this.skipped;
+        }
+
+        /**
+         * @return time spent parsing and writing the shards
+         */
+        public long getWriteNanos() {
+            return this.writeNanos;
+        }
+
+        /**
+         * @return time spent merging the shards into player
+         */
+        public long getMergeNanos() {
+            return this.mergeNanos;
+        }
+
+        /**
+         * @return Summary as a String
+         */
+        @Override
+        public String toString() {
+            return players + " players (" + skipped + " skipped) in " + shards + " shards: written in "
+                    + writeNanos / 1000000 + " ms, merged in " + mergeNanos / 1000000 + " ms, "
+                    + elapsedNanos / 1000000 + " ms in all (" + (long) (players * 1e9 / Math.max(elapsedNanos, 1))
+                    + " rows/sec)";
+        }
+    }
+}
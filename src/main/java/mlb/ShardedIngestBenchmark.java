@@ -0,0 +1,135 @@
+package mlb;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Compares the single-threaded writePlayerTable with a ShardedIngest on a
+ * synthetic players file of any size. Both load into fresh databases in
+ * data/mlb through an IngestSession, which are deleted afterwards.
+ */
+public class ShardedIngestBenchmark {
+
+    public static final int DEFAULT_ROWS = 2000000;
+
+    /**
+     * @param args the command line arguments: [rows] [shards]
+     */
+    public static void main(String[] args) {
+        int rows = DEFAULT_ROWS;
+        int shards = ShardedIngest.DEFAULT_SHARDS;
+        if (args != null && args.length != 0) {
+            rows = Integer.parseInt(args[0]);
+        }
+        if (args != null && args.length > 1) {
+            shards = Integer.parseInt(args[1]);
+        }
+
+        DatabaseWriter dw = new DatabaseWriter();
+        ArrayList<Team> league = dw.readTeamFromJson("data/mlb/teams.json");
+        Path csv = null;
+        try {
+            csv = Files.createTempFile("players", ".csv");
+            long start = System.nanoTime();
+            writeSyntheticCsv(csv, league, rows);
+            System.out.printf("generated %d rows (%d MB) in %d ms%n", rows, Files.size(csv) >> 20,
+                    (System.nanoTime() - start) / 1000000);
+
+            long single = load(dw, league, "bench_single.sqlite", csv, 0);
+            report("writePlayerTable", rows, single);
+            long sharded = load(dw, league, "bench_sharded.sqlite", csv, shards);
+            report("sharded x" + shards, rows, sharded);
+            System.out.printf("speedup %.2fx%n", (double) single / Math.max(sharded, 1));
+        } catch (SQLException | IOException ex) {
+            Logger.getLogger(ShardedIngestBenchmark.class.getName()).log(Level.SEVERE, null, ex);
+        } finally {
+            try {
+                if (csv != null) {
+                    Files.deleteIfExists(csv);
+                }
+            } catch (IOException ex) {
+                Logger.getLogger(ShardedIngestBenchmark.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+    }
+
+    /**
+     * Write rows players spread over every team, with only the columns
+     * DatabaseWriter reads
+     *
+     * @param csv
+     * @param league
+     * @param rows
+     * @throws IOException
+     */
+    static void writeSyntheticCsv(Path csv, ArrayList<Team> league, int rows) throws IOException {
+        String[] positions = { "P", "C", "1B", "2B", "3B", "SS", "LF", "CF", "RF", "DH" };
+        try (BufferedWriter out = Files.newBufferedWriter(csv, Charset.defaultCharset())) {
+            out.write(String.join(",", DatabaseWriter.PLAYER_COLUMNS));
+            out.newLine();
+            for (int i = 0; i < rows; i++) {
+                out.write(Integer.toString(1000000 + i));
+                out.write(",Player ");
+                out.write(Integer.toString(i));
+                out.write(',');
+                out.write(league.get(i % league.size()).getName());
+                out.write(',');
+                out.write(positions[i % positions.length]);
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Load the teams and then the players into a new database
+     *
+     * @param shards 0 for writePlayerTable
+     * @return nanoseconds spent loading and committing the players
+     */
+    private static long load(DatabaseWriter dw, ArrayList<Team> league, String db_filename, Path csv, int shards)
+            throws SQLException, IOException {
+        try (IngestSession session = new IngestSession(dw, db_filename)) {
+            dw.createTables(session.getConnection());
+            dw.writeTeamTable(session.getConnection(), league);
+            session.commit();
+            long start = System.nanoTime();
+            if (shards == 0) {
+                try (Stream<Player> roster = dw.streamPlayersFromCsv(csv.toString())) {
+                    dw.writePlayerTable(session.getConnection(), roster, DatabaseWriter.DEFAULT_BATCH_SIZE);
+                }
+                session.commit();
+            } else {
+                System.out.println(new ShardedIngest(dw, shards, DatabaseWriter.DEFAULT_BATCH_SIZE)
+                        .run(session.getConnection(), csv.toString()));
+            }
+            long elapsed = System.nanoTime() - start;
+            ResultSet results = session.getConnection().createStatement().executeQuery("SELECT COUNT(*) FROM player;");
+            System.out.println(db_filename + ": " + results.getInt(1) + " players");
+            results.close();
+            return elapsed;
+        } finally {
+            for (String suffix : new String[] { "", "-wal", "-shm" }) {
+                File db_file = new File("data/mlb/" + db_filename + suffix);
+
+                if (db_file.exists()) {
+                    db_file.delete();
+                }
+            }
+        }
+    }
+
+    private static void report(String label, long rows, long nanos) {
+        System.out.printf("%-20s %10d rows %10d ms %12.0f rows/sec%n", label, rows, nanos / 1000000,
+                rows * 1e9 / Math.max(nanos, 1));
+    }
+}
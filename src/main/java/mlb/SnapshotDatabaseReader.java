@@ -0,0 +1,249 @@
+package mlb;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * DatabaseReader that answers every lookup from a LeagueSnapshot in memory.
+ * The database is only read when the snapshot is (re)loaded; a new snapshot
+ * replaces the old one in a single volatile write, so lookups on other threads
+ * see either the old or the new league, never a mix. Lookups take no locks and
+ * are safe from any thread.
+ */
+public class SnapshotDatabaseReader extends DatabaseReader {
+
+    private final Path db_file;
+    private volatile LeagueSnapshot snapshot;
+    private String stamp;
+    /* Snapshots swapped in so far */
+    private volatile long swaps = 0;
+
+    public SnapshotDatabaseReader() {
+        this("mlb.sqlite");
+    }
+
+    /**
+     * Load the first snapshot
+     *
+     * @param db_filename database file in data/mlb
+     */
+    public SnapshotDatabaseReader(String db_filename) {
+        super(db_filename);
+        this.db_file = Paths.get("data/mlb", db_filename);
+        this.reload();
+    }
+
+    /**
+     * @return the current snapshot
+     */
+    public LeagueSnapshot getSnapshot() {
+        return this.snapshot;
+    }
+
+    /**
+     * Read the database into a new snapshot and swap it in. The old snapshot
+     * stays in use if reading fails.
+     *
+     * @return whether a new snapshot was swapped in
+     */
+    public synchronized boolean reload() {
+        String current = this.readStamp();
+        try {
+            LeagueSnapshot next = LeagueSnapshot.load(this);
+            this.snapshot = next;
+            this.stamp = current;
+            this.swaps++;
+            return true;
+        } catch (SQLException ex) {
+            Logger.getLogger(SnapshotDatabaseReader.class.getName()).log(Level.SEVERE, null, ex);
+            if (this.snapshot == null) {
+                this.snapshot = LeagueSnapshot.EMPTY;
+            }
+            return false;
+        } finally {
+            super.close();
+        }
+    }
+
+    /**
+     * Reload if the database file (or its WAL) has changed since the last load
+     *
+     * @return whether a new snapshot was swapped in
+     */
+    public synchronized boolean reloadIfModified() {
+        if (this.readStamp().equals(this.stamp)) {
+            return false;
+        }
+        return this.reload();
+    }
+
+    /**
+     * Reload if the database file has changed, without opening a connection
+     * otherwise
+     *
+     * @return number of snapshots swapped in so far
+     */
+    @Override
+    public long getDataVersion() {
+        this.reloadIfModified();
+        return this.swaps;
+    }
+
+    @Override
+    public void getDivisions(ArrayList<String> divisions) {
+        divisions.addAll(this.snapshot.getDivisions());
+    }
+
+    @Override
+    public void getTeams(String confDiv, ArrayList<String> teams) {
+        teams.addAll(this.snapshot.getTeams(confDiv));
+    }
+
+    @Override
+    public void getNames(ArrayList<String> teamNames, ArrayList<String> playerNames) {
+        LinkedHashSet<String> names = new LinkedHashSet<>();
+        for (String teamName : this.snapshot.getTeamNames()) {
+            teamNames.add(teamName);
+            for (Player player : this.snapshot.getRoster(teamName)) {
+                names.add(player.getName());
+            }
+        }
+        playerNames.addAll(names);
+    }
+
+    @Override
+    public Team getTeamInfo(String teamName) {
+        return this.snapshot.getTeam(teamName);
+    }
+
+    @Override
+    public Team getTeamDetail(String teamName) {
+        return this.snapshot.getTeamDetail(teamName);
+    }
+
+    @Override
+    public ArrayList<Team> getTeamDetails(Collection<String> teamNames) {
+        LeagueSnapshot league = this.snapshot;
+        ArrayList<Team> teams = new ArrayList<>();
+        for (String teamName : teamNames) {
+            Team team = league.getTeamDetail(teamName);
+            if (team != null) {
+                teams.add(team);
+            }
+        }
+        return teams;
+    }
+
+    @Override
+    public ArrayList<Team> getTeamInfos(Collection<String> teamNames) {
+        LeagueSnapshot league = this.snapshot;
+        ArrayList<Team> teams = new ArrayList<>();
+        for (String teamName : teamNames) {
+            Team team = league.getTeam(teamName);
+            if (team != null) {
+                teams.add(team);
+            }
+        }
+        return teams;
+    }
+
+    @Override
+    public ArrayList<Team> getDivisionDetail(String confDiv) {
+        ArrayList<Team> teams = this.getTeamInfos(this.snapshot.getTeams(confDiv));
+        teams.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return teams;
+    }
+
+    /**
+     * Search the snapshot; the database and its player_search index are not
+     * used
+     */
+    @Override
+    public ArrayList<Player> search(String query, int limit) {
+        return new ArrayList<>(this.snapshot.search(query, limit));
+    }
+
+    /**
+     * @return true: the snapshot is searched without the index
+     */
+    @Override
+    public boolean hasSearchIndex() {
+        return true;
+    }
+
+    @Override
+    public byte[] getLogo(String teamId) {
+        return this.snapshot.getLogo(teamId);
+    }
+
+    @Override
+    public InputStream getLogoStream(String teamId) {
+        byte[] logo = this.getLogo(teamId);
+        return logo == null ? null : new ByteArrayInputStream(logo);
+    }
+
+    @Override
+    public int getRosterSize(String teamName) {
+        return this.snapshot.getRoster(teamName).size();
+    }
+
+    @Override
+    public ArrayList<Player> getRosterPage(String teamName, String sortColumn, boolean ascending, int offset, int limit) {
+        List<Player> roster = this.sortedRoster(teamName, sortColumn, ascending);
+        int from = Math.min(offset, roster.size());
+        return new ArrayList<>(roster.subList(from, Math.min(from + limit, roster.size())));
+    }
+
+    @Override
+    public Stream<Player> streamRoster(String teamName, String sortColumn, boolean ascending) {
+        return this.sortedRoster(teamName, sortColumn, ascending).stream();
+    }
+
+    /**
+     * @return a sorted copy of a roster; the sort is stable, so ties keep
+     * roster order (reversed when descending) like the SQL version
+     */
+    private List<Player> sortedRoster(String teamName, String sortColumn, boolean ascending) {
+        DatabaseReader.orderBy(sortColumn, ascending);
+        Comparator<Player> order = Comparator.comparing(sortColumn.equals("name") ? Player::getName : Player::getPosition);
+        ArrayList<Player> roster = new ArrayList<>(this.snapshot.getRoster(teamName));
+        if (!ascending) {
+            Collections.reverse(roster);
+            order = order.reversed();
+        }
+        roster.sort(order);
+        return roster;
+    }
+
+    /**
+     * @return modification time and size of the database file and its WAL
+     */
+    private String readStamp() {
+        StringBuilder current = new StringBuilder();
+        for (Path file : new Path[] { this.db_file, Paths.get(this.db_file + "-wal") }) {
+            try {
+                if (Files.exists(file)) {
+                    current.append(Files.getLastModifiedTime(file).toMillis()).append(':').append(Files.size(file));
+                }
+            } catch (IOException ex) {
+                Logger.getLogger(SnapshotDatabaseReader.class.getName()).log(Level.WARNING, null, ex);
+            }
+            current.append('/');
+        }
+        return current.toString();
+    }
+}
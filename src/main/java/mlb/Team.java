@@ -4,9 +4,11 @@ package mlb;
  * @author Roman Yasinovskyy
  */
 import java.util.ArrayList;
+import java.util.function.Supplier;
 
 import org.apache.commons.lang3.NotImplementedException;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -27,6 +29,7 @@ public class Team {
     private ArrayList<Player> roster;
     private Address address;
     private byte[] logo;
+    private Supplier<byte[]> logoLoader;
 
     /**
      * Default class constructor. Needed to load json properly.
@@ -125,9 +128,15 @@ public class Team {
     }
 
     /**
-     * @return Team logo
+     * @return Team logo, fetched on first use if a loader was set; not
+     * serialized, so writing a Team as JSON never loads it
      */
+    @JsonIgnore
     public byte[] getLogo() {
+        if (this.logo == null && this.logoLoader != null) {
+            this.logo = this.logoLoader.get();
+            this.logoLoader = null;
+        }
         return this.logo;
     }
 
@@ -138,6 +147,17 @@ public class Team {
      */
     public void setLogo(byte[] new_value) {
         this.logo = new_value;
+        this.logoLoader = null;
+    }
+
+    /**
+     * Fetch the logo only when getLogo() is first called
+     *
+     * @param loader
+     */
+    public void setLogoLoader(Supplier<byte[]> loader) {
+        this.logo = null;
+        this.logoLoader = loader;
     }
 
     /**
@@ -146,7 +166,9 @@ public class Team {
     @Override
     public String toString() {
         // TODO Implement this method
-        return this.name + "\n" + this.conference + " | " + this.division + "\n" + this.address + "\n" + "Roster size: " + this.roster.size();
+        String info = this.name + "\n" + this.conference + " | " + this.division + "\n" + this.address;
+        /* Teams read without their roster leave it out */
+        return this.roster == null ? info : info + "\n" + "Roster size: " + this.roster.size();
         // throw new NotImplementedException();
     }
 }
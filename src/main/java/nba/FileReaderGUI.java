@@ -8,17 +8,25 @@ package nba;
 import javax.swing.DefaultListModel;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+
+import mlb.Autocomplete;
+import mlb.AutocompletePopup;
 
 public class FileReaderGUI extends javax.swing.JFrame {
     League nba;
     private final DefaultListModel<String> listModelDivs = new DefaultListModel<String>();
     private final DefaultListModel<String> listModelTeams = new DefaultListModel<String>();
+    /* Team names for type-ahead, updated whenever a file is loaded */
+    private final Autocomplete completions = new Autocomplete();
+    private final javax.swing.JTextField jTextFieldFind = new javax.swing.JTextField();
 
     /**
      * Creates new form FileReaderGUI
      */
     public FileReaderGUI() {
         initComponents();
+        addFindBar();
         FileReader fr = new FileReader();
 
         long start = System.nanoTime();
@@ -26,6 +34,7 @@ public class FileReaderGUI extends javax.swing.JFrame {
         jRadioButtonTxt.setSelected(true);
         long end = System.nanoTime();
         jLabelStatus.setText("Loaded nba.txt in " + (end - start) / 1000000 + " ms");
+        updateCompletions();
 
         // nba = fr.readFileJson("teams.json");
         // nba = fr.readFileSqlite("teams.sqlite");
@@ -202,6 +211,7 @@ public class FileReaderGUI extends javax.swing.JFrame {
         nba = fr.readFileTxt("data/nba/nba.txt");
         long end = System.nanoTime();
         jLabelStatus.setText("Loaded nba.txt in " + (end - start) / 1000000 + " ms");
+        updateCompletions();
     }// GEN-LAST:event_jRadioButtonTxtActionPerformed
 
     private void jRadioButtonJsonActionPerformed(java.awt.event.ActionEvent evt) {// GEN-FIRST:event_jRadioButtonJsonActionPerformed
@@ -210,6 +220,7 @@ public class FileReaderGUI extends javax.swing.JFrame {
         nba = fr.readFileJson("data/nba/nba.json");
         long end = System.nanoTime();
         jLabelStatus.setText("Loaded nba.json in " + (end - start) / 1000000 + " ms");
+        updateCompletions();
     }// GEN-LAST:event_jRadioButtonJsonActionPerformed
 
     private void jRadioButtonSqliteActionPerformed(java.awt.event.ActionEvent evt) {// GEN-FIRST:event_jRadioButtonSqliteActionPerformed
@@ -218,8 +229,51 @@ public class FileReaderGUI extends javax.swing.JFrame {
         nba = fr.readFileSqlite("data/nba/nba.sqlite");
         long end = System.nanoTime();
         jLabelStatus.setText("Loaded nba.sqlite in " + (end - start) / 1000000 + " ms");
+        updateCompletions();
     }// GEN-LAST:event_jRadioButtonSqliteActionPerformed
 
+    /**
+     * Put a team finder with type-ahead above the generated form
+     */
+    private void addFindBar() {
+        javax.swing.JPanel findBar = new javax.swing.JPanel(new java.awt.BorderLayout(5, 0));
+        findBar.setBorder(javax.swing.BorderFactory.createEmptyBorder(5, 5, 0, 5));
+        findBar.add(new javax.swing.JLabel("Find team"), java.awt.BorderLayout.WEST);
+        findBar.add(jTextFieldFind, java.awt.BorderLayout.CENTER);
+        javax.swing.JPanel root = new javax.swing.JPanel(new java.awt.BorderLayout());
+        root.add(findBar, java.awt.BorderLayout.NORTH);
+        root.add(getContentPane(), java.awt.BorderLayout.CENTER);
+        setContentPane(root);
+        pack();
+        new AutocompletePopup(jTextFieldFind, completions, this::showTeam);
+    }
+
+    /**
+     * Make the type-ahead names match the loaded league
+     */
+    private void updateCompletions() {
+        HashMap<String, Integer> terms = new HashMap<>();
+        for (Team t : nba.getTeamList()) {
+            terms.put(t.getName(), 1);
+        }
+        completions.update(terms);
+    }
+
+    /**
+     * Select a team and its division in the lists
+     *
+     * @param teamName
+     */
+    private void showTeam(String teamName) {
+        for (Team t : nba.getTeamList()) {
+            if (t.getName().equals(teamName)) {
+                jListDivisions.setSelectedValue(t.getDivision(), true);
+                jListTeams.setSelectedValue(teamName, true);
+                return;
+            }
+        }
+    }
+
     /**
      * @param args the command line arguments
      */
@@ -0,0 +1,83 @@
+package mlb;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsyncDatabaseReaderTest {
+
+    public AsyncDatabaseReaderTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("AsyncDatabaseReader");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of getDivisions and getTeams methods, of class AsyncDatabaseReader.
+     */
+    @Test
+    public void testGetDivisionsAndTeams() throws Exception {
+        System.out.println("getDivisionsAndTeams");
+        AsyncDatabaseReader instance = new AsyncDatabaseReader(new DatabaseReader());
+        ArrayList<String> divisions = instance.getDivisions().get();
+        assertEquals(6, divisions.size());
+        ArrayList<CompletableFuture<ArrayList<String>>> pending = new ArrayList<>();
+        for (String confDiv : divisions) {
+            pending.add(instance.getTeams(confDiv));
+        }
+        int teams = 0;
+        for (CompletableFuture<ArrayList<String>> future : pending) {
+            teams += future.get().size();
+        }
+        assertEquals(30, teams);
+        instance.close();
+    }
+
+    /**
+     * Test of getTeamInfo and getLogo methods, of class AsyncDatabaseReader.
+     */
+    @Test
+    public void testGetTeamInfo() throws Exception {
+        System.out.println("getTeamInfo");
+        AsyncDatabaseReader instance = new AsyncDatabaseReader(new CachedDatabaseReader());
+        Team team = instance.getTeamInfo("Chicago Cubs").get();
+        assertEquals(114, team.getRoster().size());
+        assertTrue(instance.getLogo(team).get().length > 0);
+        assertNull(instance.getTeamInfo("Luther Norse").get());
+        instance.close();
+    }
+
+    /**
+     * Test of prefetchDivision method, of class AsyncDatabaseReader.
+     */
+    @Test
+    public void testPrefetchDivision() throws Exception {
+        System.out.println("prefetchDivision");
+        AsyncDatabaseReader instance = new AsyncDatabaseReader(new CachedDatabaseReader());
+        assertEquals(5, instance.prefetchDivision("American | East").get().size());
+        instance.close();
+        instance = new AsyncDatabaseReader(new DatabaseReader());
+        assertTrue(instance.prefetchDivision("American | East").get().isEmpty());
+        instance.close();
+    }
+}
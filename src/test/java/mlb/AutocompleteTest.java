@@ -0,0 +1,118 @@
+package mlb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AutocompleteTest {
+
+    Autocomplete instance;
+
+    public AutocompleteTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("Autocomplete");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        instance = new Autocomplete();
+        instance.add("Chicago Cubs", 2);
+        instance.add("Chicago White Sox", 2);
+        instance.add("Anthony Rizzo", 1);
+        instance.add("Jos\u00e9 Abreu", 1);
+        instance.add("Cubby Bear", 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of complete method, of class Autocomplete.
+     */
+    @Test
+    public void testComplete() {
+        System.out.println("complete");
+        assertEquals(Arrays.asList("Chicago Cubs", "Cubby Bear"), instance.complete("cub", 10));
+        assertEquals(Arrays.asList("Chicago White Sox"), instance.complete("Chicago  W", 10));
+        assertEquals(Arrays.asList("Jos\u00e9 Abreu"), instance.complete("jose", 10));
+        assertEquals(Arrays.asList("Chicago Cubs", "Chicago White Sox"), instance.complete("c", 2));
+        assertEquals(3, instance.complete("c", 20).size());
+        assertTrue(instance.complete("chicagox", 10).isEmpty());
+        assertTrue(instance.complete("", 10).isEmpty());
+    }
+
+    /**
+     * Test of remove and add methods, of class Autocomplete.
+     */
+    @Test
+    public void testRemove() {
+        System.out.println("remove");
+        assertTrue(instance.remove("Chicago Cubs"));
+        assertFalse(instance.remove("Chicago Cubs"));
+        assertEquals(Arrays.asList("Cubby Bear"), instance.complete("cub", 10));
+        instance.add("Cubby Bear", 3);
+        assertEquals(Arrays.asList("Cubby Bear", "Chicago White Sox"), instance.complete("c", 10));
+        assertEquals(4, instance.size());
+    }
+
+    /**
+     * Test of update method, of class Autocomplete.
+     */
+    @Test
+    public void testUpdate() {
+        System.out.println("update");
+        HashMap<String, Integer> terms = new HashMap<>();
+        terms.put("Chicago White Sox", 2);
+        terms.put("Anthony Rizzo", 1);
+        terms.put("New York Mets", 2);
+        assertEquals(4, instance.update(terms));
+        assertEquals(0, instance.update(terms));
+        assertEquals(3, instance.size());
+        assertEquals(Arrays.asList("Chicago White Sox"), instance.complete("c", 10));
+        assertEquals(Arrays.asList("New York Mets"), instance.complete("york", 10));
+    }
+
+    /**
+     * Test of complete method on the mlb roster, of class Autocomplete.
+     */
+    @Test
+    public void testCompleteLeague() {
+        System.out.println("completeLeague");
+        DatabaseReader reader = new DatabaseReader();
+        ArrayList<String> teamNames = new ArrayList<>();
+        ArrayList<String> playerNames = new ArrayList<>();
+        reader.getNames(teamNames, playerNames);
+        Autocomplete league = new Autocomplete();
+        league.update(DatabaseReaderGUI.completionTerms(teamNames, playerNames));
+        assertEquals("Chicago Cubs", league.complete("chicago c", 5).get(0));
+        String[] prefixes = { "a", "jo", "riz", "new y", "p", "mar", "cubs", "s" };
+        for (String prefix : prefixes) {
+            league.complete(prefix, AutocompletePopup.LIMIT);
+        }
+        int rounds = 10000;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            List<String> result = league.complete(prefixes[i % prefixes.length], AutocompletePopup.LIMIT);
+            assertFalse(result.isEmpty());
+        }
+        long perLookup = (System.nanoTime() - start) / rounds;
+        assertTrue(perLookup < 1000000, perLookup + " ns per lookup");
+        reader.close();
+    }
+}
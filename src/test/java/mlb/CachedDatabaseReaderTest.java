@@ -0,0 +1,200 @@
+package mlb;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachedDatabaseReaderTest {
+
+    public CachedDatabaseReaderTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("CachedDatabaseReader");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.copy(Paths.get("data/mlb/mlb.sqlite"), Paths.get("data/mlb/test_cache.sqlite"),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        File db_file = new File("data/mlb/test_cache.sqlite");
+
+        if (db_file.exists()) {
+            db_file.delete();
+        }
+    }
+
+    /**
+     * Test of getHits and getMisses methods, of class CachedDatabaseReader.
+     */
+    @Test
+    public void testHitsAndMisses() {
+        System.out.println("hitsAndMisses");
+        CachedDatabaseReader instance = new CachedDatabaseReader("test_cache.sqlite", 8);
+        ArrayList<String> divisions = new ArrayList<>();
+        instance.getDivisions(divisions);
+        instance.getDivisions(divisions);
+        assertEquals(12, divisions.size());
+        ArrayList<String> teams = new ArrayList<>();
+        instance.getTeams("National | Central", teams);
+        instance.getTeams("National | Central", teams);
+        assertEquals(10, teams.size());
+        Team first = instance.getTeamInfo("Chicago Cubs");
+        Team second = instance.getTeamInfo("Chicago Cubs");
+        assertSame(first, second);
+        assertEquals(114, second.getRoster().size());
+        assertNull(instance.getTeamInfo("Luther Norse"));
+        assertNull(instance.getTeamInfo("Luther Norse"));
+        assertEquals(3, instance.getHits());
+        assertEquals(5, instance.getMisses());
+        instance.close();
+    }
+
+    /**
+     * Test of the LRU bound, of class CachedDatabaseReader.
+     */
+    @Test
+    public void testCapacity() {
+        System.out.println("capacity");
+        CachedDatabaseReader instance = new CachedDatabaseReader("test_cache.sqlite", 2);
+        Team cubs = instance.getTeamInfo("Chicago Cubs");
+        instance.getTeamInfo("Boston Red Sox");
+        instance.getTeamInfo("Chicago Cubs");
+        instance.getTeamInfo("New York Yankees");
+        assertEquals(2, instance.getCachedTeams());
+        /* Boston was the least recently used */
+        assertSame(cubs, instance.getTeamInfo("Chicago Cubs"));
+        long misses = instance.getMisses();
+        instance.getTeamInfo("Boston Red Sox");
+        assertEquals(misses + 1, instance.getMisses());
+        instance.close();
+    }
+
+    /**
+     * Test of getTeamDetail method, of class CachedDatabaseReader.
+     */
+    @Test
+    public void testGetTeamDetail() {
+        System.out.println("getTeamDetail");
+        CachedDatabaseReader instance = new CachedDatabaseReader("test_cache.sqlite", 8);
+        Team detail = instance.getTeamDetail("Chicago Cubs");
+        assertNull(detail.getRoster());
+        assertSame(detail, instance.getTeamDetail("Chicago Cubs"));
+        assertEquals(1, instance.getMisses());
+        /* A team without its roster does not answer getTeamInfo */
+        Team team = instance.getTeamInfo("Chicago Cubs");
+        assertEquals(114, team.getRoster().size());
+        assertEquals(2, instance.getMisses());
+        assertSame(team, instance.getTeamDetail("Chicago Cubs"));
+        assertNull(instance.getTeamDetail("Luther Norse"));
+        instance.close();
+    }
+
+    /**
+     * Test of prefetchDivision method, of class CachedDatabaseReader.
+     */
+    @Test
+    public void testPrefetchDivision() {
+        System.out.println("prefetchDivision");
+        CachedDatabaseReader instance = new CachedDatabaseReader("test_cache.sqlite", 8);
+        Team cubs = instance.getTeamInfo("Chicago Cubs");
+        ArrayList<Team> result = instance.prefetchDivision("National | Central");
+        assertEquals(5, result.size());
+        assertTrue(result.contains(cubs));
+        assertEquals(4, instance.getPrefetches());
+        long misses = instance.getMisses();
+        for (Team team : result) {
+            assertSame(team, instance.getTeamDetail(team.getName()));
+        }
+        assertEquals(misses, instance.getMisses());
+        assertEquals(4, instance.getPrefetchHits());
+        /* Only the first use of a prefetched team counts */
+        instance.getTeamDetail(result.get(0).getName());
+        assertEquals(4, instance.getPrefetchHits());
+        assertEquals(5, instance.prefetchDivision("National | Central").size());
+        assertEquals(4, instance.getPrefetches());
+        /* The first roster page is served from what was prefetched */
+        DatabaseReader expected = new DatabaseReader("test_cache.sqlite");
+        assertEquals(expected.getRosterSize("Chicago Cubs"), instance.getRosterSize("Chicago Cubs"));
+        ArrayList<Player> page = instance.getRosterPage("Chicago Cubs", "name", true, 0, RosterTableModel.DEFAULT_PAGE_SIZE);
+        assertEquals(2, instance.getPageHits());
+        ArrayList<Player> expPage = expected.getRosterPage("Chicago Cubs", "name", true, 0, RosterTableModel.DEFAULT_PAGE_SIZE);
+        assertEquals(expPage.size(), page.size());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(expPage.get(i).getName(), page.get(i).getName());
+        }
+        instance.getRosterPage("Chicago Cubs", "name", false, 0, RosterTableModel.DEFAULT_PAGE_SIZE);
+        assertEquals(2, instance.getPageHits());
+        expected.close();
+        instance.close();
+    }
+
+    /**
+     * Test of invalidation on a database change, of class CachedDatabaseReader.
+     */
+    @Test
+    public void testInvalidation() throws Exception {
+        System.out.println("invalidation");
+        CachedDatabaseReader instance = new CachedDatabaseReader("test_cache.sqlite", 8);
+        assertEquals("Chicago", instance.getTeamInfo("Chicago Cubs").getAddress().getCity());
+        assertEquals(0, instance.getInvalidations());
+
+        Connection db_connection = DriverManager.getConnection("jdbc:sqlite:data/mlb/test_cache.sqlite");
+        Statement statement = db_connection.createStatement();
+        statement.executeUpdate("UPDATE address SET city = 'Wrigleyville' WHERE team = "
+                + "(SELECT CAST(idpk AS TEXT) FROM team WHERE name = 'Chicago Cubs')");
+        statement.close();
+        db_connection.close();
+
+        assertEquals("Wrigleyville", instance.getTeamInfo("Chicago Cubs").getAddress().getCity());
+        assertEquals(1, instance.getInvalidations());
+        assertEquals(0, instance.getHits());
+        instance.close();
+    }
+
+    /**
+     * Test of addInvalidationListener method, of class CachedDatabaseReader.
+     */
+    @Test
+    public void testInvalidationListener() throws Exception {
+        System.out.println("invalidationListener");
+        CachedDatabaseReader instance = new CachedDatabaseReader("test_cache.sqlite", 8);
+        int[] dropped = { 0 };
+        instance.addInvalidationListener(() -> dropped[0]++);
+        instance.getTeamInfo("Chicago Cubs");
+        int before = dropped[0];
+        instance.getTeamInfo("Chicago Cubs");
+        assertEquals(before, dropped[0]);
+
+        Connection db_connection = DriverManager.getConnection("jdbc:sqlite:data/mlb/test_cache.sqlite");
+        Statement statement = db_connection.createStatement();
+        statement.executeUpdate("UPDATE team SET logo = NULL WHERE name = 'Chicago Cubs'");
+        statement.close();
+        db_connection.close();
+
+        assertNull(instance.getTeamInfo("Chicago Cubs").getLogo());
+        assertEquals(before + 1, dropped[0]);
+        instance.close();
+    }
+}
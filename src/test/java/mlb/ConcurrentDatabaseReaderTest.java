@@ -0,0 +1,211 @@
+package mlb;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentDatabaseReaderTest {
+
+    public ConcurrentDatabaseReaderTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("ConcurrentDatabaseReader");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.copy(Paths.get("data/mlb/mlb.sqlite"), Paths.get("data/mlb/test_concurrent.sqlite"),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (String suffix : new String[] { "", "-wal", "-shm" }) {
+            File db_file = new File("data/mlb/test_concurrent.sqlite" + suffix);
+
+            if (db_file.exists()) {
+                db_file.delete();
+            }
+        }
+    }
+
+    /**
+     * Test of getTeamInfo method from many threads, of class ConcurrentDatabaseReader.
+     */
+    @Test
+    public void testGetTeamInfoConcurrently() throws Exception {
+        System.out.println("getTeamInfoConcurrently");
+        ConcurrentDatabaseReader instance = new ConcurrentDatabaseReader("test_concurrent.sqlite", 4);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        ArrayList<Future<Integer>> sizes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String teamName = i % 2 == 0 ? "Chicago Cubs" : "Luther Norse";
+            sizes.add(executor.submit(() -> {
+                Team team = instance.getTeamInfo(teamName);
+                return team == null ? -1 : team.getRoster().size();
+            }));
+        }
+        for (int i = 0; i < sizes.size(); i++) {
+            assertEquals(i % 2 == 0 ? 114 : -1, sizes.get(i).get().intValue());
+        }
+        executor.shutdown();
+        assertEquals(4, instance.getPoolSize());
+        assertEquals(4, instance.getIdle());
+        Team team = instance.getTeamInfo("Chicago Cubs");
+        assertNotNull(team.getLogo());
+        instance.close();
+    }
+
+    /**
+     * Test of the journal mode and the query-only connections, of class ConcurrentDatabaseReader.
+     */
+    @Test
+    public void testQueryOnly() throws Exception {
+        System.out.println("queryOnly");
+        ConcurrentDatabaseReader unchanged = new ConcurrentDatabaseReader("test_concurrent.sqlite", 2);
+        ResultSet journal = unchanged.prepare("PRAGMA journal_mode").executeQuery();
+        assertEquals("delete", journal.getString(1));
+        journal.close();
+        unchanged.close();
+        assertFalse(new File("data/mlb/test_concurrent.sqlite-wal").exists());
+        ConcurrentDatabaseReader instance = new ConcurrentDatabaseReader("test_concurrent.sqlite", 2, true);
+        String journalMode = instance.read(reader -> {
+            try {
+                ResultSet results = reader.prepare("PRAGMA journal_mode").executeQuery();
+                String mode = results.next() ? results.getString(1) : null;
+                results.close();
+                return mode;
+            } catch (SQLException ex) {
+                return ex.toString();
+            }
+        });
+        assertEquals("wal", journalMode);
+        IllegalStateException refused = assertThrows(IllegalStateException.class, () -> {
+            instance.read(reader -> {
+                try {
+                    return reader.prepare("DELETE FROM player").executeUpdate();
+                } catch (SQLException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            });
+        });
+        assertTrue(refused.getCause() instanceof SQLException);
+        instance.close();
+        DatabaseReader plain = new DatabaseReader("test_concurrent.sqlite");
+        assertEquals(114, plain.getRosterSize("Chicago Cubs"));
+        plain.close();
+    }
+
+    /**
+     * Test of streamRoster method, of class ConcurrentDatabaseReader.
+     */
+    @Test
+    public void testStreamRoster() {
+        System.out.println("streamRoster");
+        ConcurrentDatabaseReader instance = new ConcurrentDatabaseReader("test_concurrent.sqlite", 2);
+        try (Stream<Player> roster = instance.streamRoster("Chicago Cubs", "name", true)) {
+            assertEquals(1, instance.getIdle());
+            assertEquals(114, roster.count());
+        }
+        assertEquals(2, instance.getIdle());
+        assertThrows(IllegalArgumentException.class, () -> instance.streamRoster("Chicago Cubs", "id", true));
+        assertEquals(2, instance.getIdle());
+        instance.close();
+    }
+
+    /**
+     * Test of close method, of class ConcurrentDatabaseReader.
+     */
+    @Test
+    public void testClose() {
+        System.out.println("close");
+        ConcurrentDatabaseReader instance = new ConcurrentDatabaseReader("test_concurrent.sqlite", 2);
+        ArrayList<String> divisions = new ArrayList<>();
+        instance.getDivisions(divisions);
+        assertEquals(6, divisions.size());
+        instance.close();
+        assertEquals(0, instance.getIdle());
+        assertThrows(IllegalStateException.class, () -> instance.getDivisions(divisions));
+        assertThrows(IllegalStateException.class, () -> instance.prepare("SELECT 1"));
+    }
+
+    /**
+     * Test of close method with a thread waiting for a connection, of class ConcurrentDatabaseReader.
+     */
+    @Test
+    @Timeout(10)
+    public void testCloseWhileWaiting() throws Exception {
+        System.out.println("closeWhileWaiting");
+        ConcurrentDatabaseReader instance = new ConcurrentDatabaseReader("test_concurrent.sqlite", 1);
+        CountDownLatch borrowed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<Integer> holder = executor.submit(() -> instance.read(reader -> {
+            borrowed.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return reader.getRosterSize("Chicago Cubs");
+        }));
+        borrowed.await();
+        Future<Integer> waiter = executor.submit(() -> instance.getRosterSize("Chicago Cubs"));
+        Thread.sleep(200);
+        instance.close();
+        release.countDown();
+        assertEquals(114, holder.get().intValue());
+        ExecutionException refused = assertThrows(ExecutionException.class, () -> waiter.get());
+        assertTrue(refused.getCause() instanceof IllegalStateException);
+        assertEquals(0, instance.getIdle());
+        executor.shutdown();
+    }
+
+    /**
+     * Test of prepare and getDataVersion methods, of class ConcurrentDatabaseReader.
+     */
+    @Test
+    public void testDataVersion() throws Exception {
+        System.out.println("dataVersion");
+        ConcurrentDatabaseReader instance = new ConcurrentDatabaseReader("test_concurrent.sqlite", 2);
+        ResultSet results = instance.prepare("SELECT COUNT(*) FROM team").executeQuery();
+        assertEquals(30, results.getInt(1));
+        results.close();
+        long version = instance.getDataVersion();
+        for (int i = 0; i < 10; i++) {
+            instance.getTeamInfo("Chicago Cubs");
+            assertEquals(version, instance.getDataVersion());
+        }
+        Connection db_connection = DriverManager.getConnection("jdbc:sqlite:data/mlb/test_concurrent.sqlite");
+        db_connection.createStatement().executeUpdate("DELETE FROM player WHERE name = 'Anthony Rizzo'");
+        db_connection.close();
+        assertNotEquals(version, instance.getDataVersion());
+        instance.close();
+    }
+}
@@ -0,0 +1,67 @@
+package mlb;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentReaderBenchmarkTest {
+
+    public ConcurrentReaderBenchmarkTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("ConcurrentReaderBenchmark");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.copy(Paths.get("data/mlb/mlb.sqlite"), Paths.get("data/mlb/test_benchmark.sqlite"),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (String suffix : new String[] { "", "-wal", "-shm" }) {
+            File db_file = new File("data/mlb/test_benchmark.sqlite" + suffix);
+
+            if (db_file.exists()) {
+                db_file.delete();
+            }
+        }
+    }
+
+    /**
+     * Test of main method, of class ConcurrentReaderBenchmark.
+     */
+    @Test
+    public void testMain() {
+        System.out.println("main");
+        String[] args = {"test_benchmark.sqlite", "100", "2"};
+        ConcurrentReaderBenchmark.main(args);
+    }
+
+    /**
+     * Test of threadCounts method, of class ConcurrentReaderBenchmark.
+     */
+    @Test
+    public void testThreadCounts() {
+        System.out.println("threadCounts");
+        assertEquals(Arrays.asList(1), ConcurrentReaderBenchmark.threadCounts(1));
+        assertEquals(Arrays.asList(1, 2, 4, 6), ConcurrentReaderBenchmark.threadCounts(6));
+        assertEquals(Arrays.asList(1, 2, 4, 8), ConcurrentReaderBenchmark.threadCounts(8));
+    }
+}
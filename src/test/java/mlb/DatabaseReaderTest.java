@@ -2,7 +2,15 @@ package mlb;
 /**
  * @author Roman Yasinovskyy
  */
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -95,5 +103,216 @@ public class DatabaseReaderTest {
         Team result = instance.getTeamInfo(teamName);
         assertEquals(expResult, result.getRoster().size());
     }
-    
+
+    /**
+     * Test of getTeamDetail and getTeamDetails methods, of class DatabaseReader.
+     */
+    @Test
+    public void testGetTeamDetail() {
+        System.out.println("getTeamDetail");
+        DatabaseReader instance = new DatabaseReader();
+        Team result = instance.getTeamDetail("Chicago Cubs");
+        assertNull(result.getRoster());
+        assertEquals("Chicago", result.getAddress().getCity());
+        assertNotNull(result.getLogo());
+        assertFalse(result.toString().contains("Roster size"));
+        assertNull(instance.getTeamDetail("Luther Norse"));
+        ArrayList<Team> details = instance.getTeamDetails(Arrays.asList("Boston Red Sox", "Chicago Cubs"));
+        assertEquals(2, details.size());
+        assertEquals("Boston Red Sox", details.get(0).getName());
+        assertNull(details.get(1).getRoster());
+        instance.close();
+    }
+
+    /**
+     * Test of getNames method, of class DatabaseReader.
+     */
+    @Test
+    public void testGetNames() {
+        System.out.println("getNames");
+        DatabaseReader instance = new DatabaseReader();
+        ArrayList<String> teamNames = new ArrayList<>();
+        ArrayList<String> playerNames = new ArrayList<>();
+        instance.getNames(teamNames, playerNames);
+        assertEquals(30, teamNames.size());
+        assertTrue(teamNames.contains("Chicago Cubs"));
+        assertTrue(playerNames.contains("Anthony Rizzo"));
+        assertEquals(playerNames.size(), new HashSet<>(playerNames).size());
+        SnapshotDatabaseReader snapshot = new SnapshotDatabaseReader();
+        ArrayList<String> snapshotTeams = new ArrayList<>();
+        ArrayList<String> snapshotPlayers = new ArrayList<>();
+        snapshot.getNames(snapshotTeams, snapshotPlayers);
+        assertTrue(snapshotTeams.containsAll(teamNames));
+        assertEquals(new HashSet<>(playerNames), new HashSet<>(snapshotPlayers));
+        snapshot.close();
+        instance.close();
+    }
+
+    /**
+     * Test of getTeamInfos method, of class DatabaseReader.
+     */
+    @Test
+    public void testGetTeamInfos() {
+        System.out.println("getTeamInfos");
+        DatabaseReader instance = new DatabaseReader();
+        ArrayList<Team> result = instance.getTeamInfos(Arrays.asList("Chicago Cubs", "Luther Norse", "Boston Red Sox"));
+        assertEquals(2, result.size());
+        assertEquals("Chicago Cubs", result.get(0).getName());
+        assertEquals("Boston Red Sox", result.get(1).getName());
+        assertEquals(114, result.get(0).getRoster().size());
+        assertEquals("Boston", result.get(1).getAddress().getCity());
+        assertTrue(instance.getTeamInfos(new ArrayList<>()).isEmpty());
+        instance.close();
+    }
+
+    /**
+     * Test of getDivisionDetail method, of class DatabaseReader.
+     */
+    @Test
+    public void testGetDivisionDetail() {
+        System.out.println("getDivisionDetail");
+        String confDiv = "National | Central";
+        DatabaseReader instance = new DatabaseReader();
+        ArrayList<Team> result = instance.getDivisionDetail(confDiv);
+        ArrayList<String> teams = new ArrayList<>();
+        instance.getTeams(confDiv, teams);
+        assertEquals(teams.size(), result.size());
+        for (Team team : result) {
+            assertTrue(teams.contains(team.getName()));
+            assertNotNull(team.getAddress());
+            assertEquals(instance.getTeamInfo(team.getName()).getRoster().size(), team.getRoster().size());
+        }
+        instance.close();
+    }
+
+    /**
+     * Test of getTeamInfo method with a lazily loaded logo, of class DatabaseReader.
+     */
+    @Test
+    public void testGetTeamInfoLogo() {
+        System.out.println("getTeamInfoLogo");
+        DatabaseReader instance = new DatabaseReader();
+        Team result = instance.getTeamInfo("Chicago Cubs");
+        assertEquals("Chicago", result.getAddress().getCity());
+        byte[] expResult = instance.getLogo(result.getId());
+        assertTrue(expResult.length > 0);
+        instance.close();
+        /* The logo is fetched on first use, reconnecting if needed */
+        assertArrayEquals(expResult, result.getLogo());
+        assertNull(instance.getLogoStream("0"));
+        instance.close();
+    }
+
+    /**
+     * Test of getRosterSize and getRosterPage methods, of class DatabaseReader.
+     */
+    @Test
+    public void testGetRosterPage() {
+        System.out.println("getRosterPage");
+        DatabaseReader instance = new DatabaseReader();
+        assertEquals(114, instance.getRosterSize("Chicago Cubs"));
+        assertEquals(0, instance.getRosterSize("Luther Norse"));
+        ArrayList<Player> roster = new ArrayList<>();
+        for (int offset = 0; offset < 114; offset += 50) {
+            roster.addAll(instance.getRosterPage("Chicago Cubs", "name", true, offset, 50));
+        }
+        assertEquals(114, roster.size());
+        for (int i = 1; i < roster.size(); i++) {
+            assertTrue(roster.get(i - 1).getName().compareTo(roster.get(i).getName()) <= 0);
+        }
+        ArrayList<Player> result = instance.getRosterPage("Chicago Cubs", "position", false, 0, 10);
+        assertEquals(10, result.size());
+        assertEquals("SS", result.get(0).getPosition());
+        assertThrows(IllegalArgumentException.class, () -> instance.getRosterPage("Chicago Cubs", "name; DROP TABLE player", true, 0, 10));
+        instance.close();
+    }
+
+    /**
+     * Test of streamRoster method, of class DatabaseReader.
+     */
+    @Test
+    public void testStreamRoster() {
+        System.out.println("streamRoster");
+        DatabaseReader instance = new DatabaseReader();
+        try (Stream<Player> roster = instance.streamRoster("Chicago Cubs", "name", true)) {
+            assertEquals(70, roster.filter(player -> player.getPosition().equals("P")).count());
+        }
+        try (Stream<Player> roster = instance.streamRoster("Chicago Cubs", "name", false)) {
+            assertEquals(instance.getRosterPage("Chicago Cubs", "name", false, 0, 1).get(0).getName(),
+                    roster.findFirst().get().getName());
+        }
+        instance.close();
+    }
+
+    /**
+     * Test of search method, of class DatabaseReader.
+     */
+    @Test
+    public void testSearch() throws Exception {
+        System.out.println("search");
+        Files.copy(Paths.get("data/mlb/mlb.sqlite"), Paths.get("data/mlb/test_search.sqlite"),
+                StandardCopyOption.REPLACE_EXISTING);
+        DatabaseWriter writer = new DatabaseWriter();
+        Connection db_connection = writer.openConnection("test_search.sqlite");
+        writer.createSearchIndex(db_connection);
+        db_connection.commit();
+        db_connection.close();
+
+        DatabaseReader instance = new DatabaseReader("test_search.sqlite");
+        assertTrue(instance.hasSearchIndex());
+        ArrayList<Player> result = instance.search("cub riz", 10);
+        assertEquals(1, result.size());
+        assertEquals("Anthony Rizzo", result.get(0).getName());
+        assertEquals("Chicago Cubs", result.get(0).getTeam());
+        assertEquals(5, instance.search("lopez", 5).size());
+        assertTrue(instance.search("   ", 10).isEmpty());
+        assertTrue(instance.search("\" OR name:*", 10).isEmpty());
+        instance.close();
+        new File("data/mlb/test_search.sqlite").delete();
+    }
+
+    /**
+     * Test of matchExpression method, of class DatabaseReader.
+     */
+    @Test
+    public void testMatchExpression() {
+        System.out.println("matchExpression");
+        assertEquals("\"cub\"* \"riz\"*", DatabaseReader.matchExpression(" cub  riz "));
+        assertEquals("\"a\"\"b\"*", DatabaseReader.matchExpression("a\"b"));
+        assertNull(DatabaseReader.matchExpression(""));
+    }
+
+    /**
+     * Test of close method, of class DatabaseReader.
+     */
+    @Test
+    public void testClose() {
+        System.out.println("close");
+        DatabaseReader instance = new DatabaseReader();
+        instance.close();
+        ArrayList<String> divisions = new ArrayList<>();
+        instance.getDivisions(divisions);
+        ArrayList<String> teams = new ArrayList<>();
+        instance.getTeams("National | Central", teams);
+        instance.getTeams("American | East", teams);
+        assertEquals(10, teams.size());
+        instance.close();
+        /* A closed reader reconnects on the next lookup */
+        assertEquals(114, instance.getTeamInfo("Chicago Cubs").getRoster().size());
+        instance.close();
+        assertThrows(NullPointerException.class, () -> instance.disconnect());
+    }
+
+    /**
+     * Test of getTeamInfo method with an unknown team, of class DatabaseReader.
+     */
+    @Test
+    public void testGetTeamInfoUnknown() {
+        System.out.println("getTeamInfoUnknown");
+        DatabaseReader instance = new DatabaseReader();
+        assertNull(instance.getTeamInfo("Luther Norse"));
+        assertNull(instance.getTeamInfo("x' OR '1' = '1"));
+        instance.close();
+    }
+
 }
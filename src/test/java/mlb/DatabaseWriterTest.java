@@ -1,10 +1,14 @@
 package mlb;
 
 import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
 /**
  * @author Roman Yasinovskyy
  */
 import java.util.ArrayList;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -82,6 +86,26 @@ public class DatabaseWriterTest {
         assertTrue(result.get(0) instanceof Player);
     }
 
+    /**
+     * Test of streamPlayersFromCsv method, of class DatabaseWriter.
+     */
+    @Test
+    public void testStreamPlayersFromCsv() throws Exception {
+        System.out.println("streamPlayersFromCsv");
+        String filename = "data/mlb/players.csv";
+        DatabaseWriter instance = new DatabaseWriter();
+        long expResult = 3069;
+        try (Stream<Player> result = instance.streamPlayersFromCsv(filename)) {
+            assertEquals(expResult, result.count());
+        }
+        try (Stream<Player> result = instance.streamPlayersFromCsv(filename)) {
+            Player first = result.findFirst().get();
+            assertEquals("592091", first.getId());
+            assertEquals("Los Angeles Angels", first.getTeam());
+            assertEquals("P", first.getPosition());
+        }
+    }
+
     /**
      * Test of createTables method, of class DatabaseWriter.
      */
@@ -163,4 +187,149 @@ public class DatabaseWriterTest {
         instance.writePlayerTable(db_filename, roster);
     }
 
+    /**
+     * Test of writePlayerTable method with a small batch size, of class DatabaseWriter.
+     */
+    @Test
+    public void testWritePlayerTableBatched() throws Exception {
+        System.out.println("writePlayerTableBatched");
+        String db_filename = "test.sqlite";
+        ArrayList<Team> league = new ArrayList<>();
+        league.add(new Team("luther-norse",
+                "NRS",
+                "Luther Norse",
+                "IIAC",
+                "NCAA, Division 3"));
+        DatabaseWriter instance = new DatabaseWriter();
+        instance.createTables(db_filename);
+        instance.writeTeamTable(db_filename, league);
+        ArrayList<Player> roster = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            roster.add(new Player("100" + i, "Player " + i, "Luther Norse", "P"));
+        }
+        roster.add(new Player("9999", "Bobby Tables", "Iowa Corndogs", "SS"));
+        instance.writePlayerTable(db_filename, roster, 2);
+        Connection db_connection = DriverManager.getConnection(instance.SQLITEDBPATH + db_filename);
+        ResultSet results = db_connection.createStatement().executeQuery("SELECT COUNT(*) FROM player;");
+        int expResult = 5;
+        assertEquals(expResult, results.getInt(1));
+        db_connection.close();
+        assertThrows(IllegalArgumentException.class, () -> instance.writePlayerTable(db_filename, roster, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> instance.writeAddressTable(db_filename, new ArrayList<Address>(), -1));
+    }
+
+    /**
+     * Test of refreshTables method, of class DatabaseWriter.
+     */
+    @Test
+    public void testRefreshTables() throws Exception {
+        System.out.println("refreshTables");
+        String db_filename = "test.sqlite";
+        DatabaseWriter instance = new DatabaseWriter();
+        instance.createTables(db_filename);
+        ArrayList<Team> league = new ArrayList<>();
+        league.add(new Team("luther-norse",
+                "NRS",
+                "Luther Norse",
+                "IIAC",
+                "NCAA, Division 3"));
+        ArrayList<Address> addressBook = new ArrayList<>();
+        addressBook.add(new Address("Luther Norse",
+                "Baseball Field",
+                "700 College Dr",
+                "Decorah",
+                "IA",
+                "52101",
+                "563-387-2000",
+                "luther.edu"));
+        ArrayList<Player> roster = new ArrayList<>();
+        roster.add(new Player("1", "John Doe", "Luther Norse", "P"));
+        roster.add(new Player("2", "Bobby Tables", "Luther Norse", "SS"));
+
+        Connection db_connection = instance.openConnection(db_filename);
+        ArrayList<ChangeSummary> result = instance.refreshTables(db_connection, league, addressBook, roster.stream(), 10);
+        db_connection.commit();
+        assertEquals("team: 1 inserted, 0 updated, 0 deleted, 0 unchanged", result.get(0).toString());
+        assertEquals("address: 1 inserted, 0 updated, 0 deleted, 0 unchanged", result.get(1).toString());
+        assertEquals("player: 2 inserted, 0 updated, 0 deleted, 0 unchanged", result.get(2).toString());
+
+        roster.clear();
+        roster.add(new Player("2", "Bobby Tables", "Luther Norse", "2B"));
+        roster.add(new Player("3", "Jane Roe", "Luther Norse", "C"));
+        result = instance.refreshTables(db_connection, league, addressBook, roster.stream(), 10);
+        db_connection.commit();
+        assertEquals("team: 0 inserted, 0 updated, 0 deleted, 1 unchanged", result.get(0).toString());
+        assertEquals("address: 0 inserted, 0 updated, 0 deleted, 1 unchanged", result.get(1).toString());
+        assertEquals("player: 1 inserted, 1 updated, 1 deleted, 0 unchanged", result.get(2).toString());
+
+        ResultSet results = db_connection.createStatement().executeQuery("SELECT position FROM player WHERE id = '2';");
+        assertEquals("2B", results.getString(1));
+        results = db_connection.createStatement().executeQuery("SELECT COUNT(*) FROM player;");
+        assertEquals(2, results.getInt(1));
+        db_connection.close();
+    }
+
+    /**
+     * Test of createIndexes method, of class DatabaseWriter.
+     */
+    @Test
+    public void testCreateIndexes() throws Exception {
+        System.out.println("createIndexes");
+        String db_filename = "test.sqlite";
+        DatabaseWriter instance = new DatabaseWriter();
+        instance.createTables(db_filename);
+        String roster = "SELECT player.name, player.position FROM player, team"
+                + " WHERE team.name = 'Luther Norse' AND player.team = CAST(team.idpk AS TEXT)";
+        String division = "SELECT name FROM team WHERE conference = 'IIAC' AND division = 'NCAA, Division 3'";
+        Connection db_connection = DriverManager.getConnection(instance.SQLITEDBPATH + db_filename);
+        String result = queryPlan(db_connection, roster);
+        assertTrue(result.contains("SCAN team"), result);
+        assertFalse(result.contains("player_team_idx"), result);
+        assertTrue(queryPlan(db_connection, division).contains("SCAN team"));
+        instance.createIndexes(db_filename);
+        result = queryPlan(db_connection, roster);
+        assertTrue(result.contains("team_name_key"), result);
+        assertTrue(result.contains("COVERING INDEX player_team_idx"), result);
+        result = queryPlan(db_connection, division);
+        assertTrue(result.contains("COVERING INDEX team_division_idx"), result);
+        db_connection.close();
+    }
+
+    /**
+     * Test of createSearchIndex method, of class DatabaseWriter.
+     */
+    @Test
+    public void testCreateSearchIndex() throws Exception {
+        System.out.println("createSearchIndex");
+        String db_filename = "test.sqlite";
+        DatabaseWriter instance = new DatabaseWriter();
+        instance.createTables(db_filename);
+        instance.writeTeamTable(db_filename, instance.readTeamFromJson("data/mlb/teams.json"));
+        instance.writePlayerTable(db_filename, instance.readPlayerFromCsv("data/mlb/players.csv"));
+        instance.createIndexes(db_filename);
+        Connection db_connection = DriverManager.getConnection(instance.SQLITEDBPATH + db_filename);
+        ResultSet results = db_connection.createStatement().executeQuery("SELECT COUNT(*) FROM player_search");
+        int indexed = results.getInt(1);
+        results.close();
+        results = db_connection.createStatement().executeQuery("SELECT COUNT(*) FROM player");
+        assertEquals(results.getInt(1), indexed);
+        results.close();
+        results = db_connection.createStatement().executeQuery("SELECT team FROM player_search"
+                + " WHERE player_search MATCH '\"rizzo\"'");
+        assertEquals("Chicago Cubs", results.getString("team"));
+        results.close();
+        db_connection.close();
+    }
+
+    private static String queryPlan(Connection db_connection, String sql) throws Exception {
+        ResultSet results = db_connection.createStatement().executeQuery("EXPLAIN QUERY PLAN " + sql);
+        StringBuilder plan = new StringBuilder();
+        while (results.next()) {
+            plan.append(results.getString("detail")).append('\n');
+        }
+        results.close();
+        return plan.toString();
+    }
+
 }
@@ -0,0 +1,76 @@
+package mlb;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DelimitedReaderTest {
+
+    static Path malformed;
+
+    public DelimitedReaderTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() throws IOException {
+        System.out.println("DelimitedReader");
+        malformed = Files.createTempFile("malformed", ".txt");
+        Files.writeString(malformed, "a\tb\tc\n\n1\t2\n1\t2\t3\t4\r\nx\ty\tz");
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws IOException {
+        Files.deleteIfExists(malformed);
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of readNext method, of class DelimitedReader.
+     */
+    @Test
+    public void testReadNext() throws Exception {
+        System.out.println("readNext");
+        DelimitedReader instance = new DelimitedReader("data/mlb/teams.txt", (byte) '\t', 8, StandardCharsets.UTF_8);
+        String[] first = instance.readNext();
+        assertEquals("Baltimore Orioles", first[0]);
+        assertEquals("orioles.com", first[7]);
+        int expResult = 30;
+        int result = 1;
+        while (instance.readNext() != null) {
+            result++;
+        }
+        instance.close();
+        assertEquals(expResult, result);
+        assertEquals(0, instance.getMalformed());
+    }
+
+    /**
+     * Test of readNext method with malformed lines and a tiny buffer, of class DelimitedReader.
+     */
+    @Test
+    public void testReadNextMalformed() throws Exception {
+        System.out.println("readNextMalformed");
+        DelimitedReader instance = new DelimitedReader(malformed.toString(), (byte) '\t', 3, StandardCharsets.UTF_8, 2);
+        assertArrayEquals(new String[] { "a", "b", "c" }, instance.readNext());
+        assertArrayEquals(new String[] { "x", "y", "z" }, instance.readNext());
+        assertNull(instance.readNext());
+        assertEquals(2, instance.getMalformed());
+        assertEquals(5, instance.getLineNumber());
+        instance.close();
+    }
+}
@@ -0,0 +1,77 @@
+package mlb;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IngestSessionTest {
+
+    public IngestSessionTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("IngestSession");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+        File db_file = new File("data/mlb/test_session.sqlite");
+
+        if (db_file.exists()) {
+            db_file.delete();
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of commit and close methods, of class IngestSession.
+     */
+    @Test
+    public void testCommitAndClose() throws Exception {
+        System.out.println("commitAndClose");
+        String db_filename = "test_session.sqlite";
+        DatabaseWriter writer = new DatabaseWriter();
+        ArrayList<Team> league = new ArrayList<>();
+        league.add(new Team("luther-norse",
+                "NRS",
+                "Luther Norse",
+                "IIAC",
+                "NCAA, Division 3"));
+        try (IngestSession instance = new IngestSession(writer, db_filename)) {
+            writer.createTables(instance.getConnection());
+            writer.writeTeamTable(instance.getConnection(), league);
+            instance.commit();
+            ArrayList<Player> roster = new ArrayList<>();
+            roster.add(new Player("1234", "John Doe", "Luther Norse", "P"));
+            /* Never committed, so rolled back on close */
+            writer.writePlayerTable(instance.getConnection(), roster.stream(), 10);
+        }
+        Connection db_connection = DriverManager.getConnection(writer.SQLITEDBPATH + db_filename);
+        ResultSet results = db_connection.createStatement().executeQuery("PRAGMA journal_mode;");
+        assertEquals("delete", results.getString(1));
+        results = db_connection.createStatement().executeQuery("SELECT COUNT(*) FROM team;");
+        assertEquals(1, results.getInt(1));
+        results = db_connection.createStatement().executeQuery("SELECT COUNT(*) FROM player;");
+        assertEquals(0, results.getInt(1));
+        results = db_connection.createStatement().executeQuery("SELECT COUNT(*) FROM sqlite_stat1;");
+        assertTrue(results.getInt(1) > 0);
+        db_connection.close();
+    }
+}
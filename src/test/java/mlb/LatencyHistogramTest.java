@@ -0,0 +1,106 @@
+package mlb;
+
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+
+    public LatencyHistogramTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("LatencyHistogram");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of getValueAtPercentile method, of class LatencyHistogram.
+     */
+    @Test
+    public void testGetValueAtPercentile() {
+        System.out.println("getValueAtPercentile");
+        LatencyHistogram instance = new LatencyHistogram();
+        assertEquals(0, instance.getValueAtPercentile(99));
+        for (long value = 1; value <= 100000; value++) {
+            instance.record(value * 1000);
+        }
+        assertEquals(100000, instance.getCount());
+        assertEquals(1000, instance.getMin());
+        assertEquals(100000000, instance.getMax());
+        assertEquals(50000500.0, instance.getMean(), 0.001);
+        long[] expected = { 50000000, 99000000, 99900000, 100000000 };
+        double[] percentiles = { 50, 99, 99.9, 100 };
+        for (int i = 0; i < percentiles.length; i++) {
+            long value = instance.getValueAtPercentile(percentiles[i]);
+            assertTrue(value >= expected[i], percentiles[i] + ": " + value);
+            assertTrue(value <= expected[i] * (1 + 1.0 / LatencyHistogram.SUB_BUCKETS), percentiles[i] + ": " + value);
+        }
+        assertTrue(instance.getValueAtPercentile(0) >= 1000);
+        assertTrue(instance.getValueAtPercentile(0) < 1000 * (1 + 1.0 / LatencyHistogram.SUB_BUCKETS));
+    }
+
+    /**
+     * Test of the bucket boundaries, of class LatencyHistogram.
+     */
+    @Test
+    public void testIndex() {
+        System.out.println("index");
+        for (long value = 0; value < 2 * LatencyHistogram.SUB_BUCKETS; value++) {
+            assertEquals(value, LatencyHistogram.index(value));
+            assertEquals(value, LatencyHistogram.highestEquivalent(LatencyHistogram.index(value)));
+        }
+        Random random = new Random(17);
+        for (int i = 0; i < 100000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            int index = LatencyHistogram.index(value);
+            assertTrue(value <= LatencyHistogram.highestEquivalent(index));
+            assertTrue(index == 0 || value > LatencyHistogram.highestEquivalent(index - 1));
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestEquivalent(LatencyHistogram.index(Long.MAX_VALUE)));
+    }
+
+    /**
+     * Test of merge and reset methods, of class LatencyHistogram.
+     */
+    @Test
+    public void testMerge() {
+        System.out.println("merge");
+        LatencyHistogram fast = new LatencyHistogram();
+        LatencyHistogram slow = new LatencyHistogram();
+        for (int i = 0; i < 990; i++) {
+            fast.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            slow.record(5000000);
+        }
+        fast.merge(slow);
+        assertEquals(1000, fast.getCount());
+        assertEquals(100, fast.getValueAtPercentile(99));
+        assertTrue(fast.getValueAtPercentile(99.9) >= 5000000);
+        assertEquals(5000000, fast.getMax());
+        fast.reset();
+        assertEquals(0, fast.getCount());
+        assertEquals(0, fast.getMax());
+        assertEquals(0, fast.getMin());
+        fast.record(-5);
+        assertEquals(0, fast.getMax());
+    }
+}
@@ -0,0 +1,100 @@
+package mlb;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadGeneratorTest {
+
+    public LoadGeneratorTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("LoadGenerator");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of parseMix method, of class LoadGenerator.
+     */
+    @Test
+    public void testParseMix() {
+        System.out.println("parseMix");
+        LinkedHashMap<String, Integer> mix = LoadGenerator.parseMix(LoadGenerator.DEFAULT_MIX);
+        assertEquals(3, mix.size());
+        assertEquals(7, mix.get("team").intValue());
+        assertEquals(1, LoadGenerator.parseMix(" team : 1 ").size());
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseMix("players:1"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseMix("team:x"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseMix("team:-1,teams:2"));
+        assertThrows(IllegalArgumentException.class, () -> LoadGenerator.parseMix("team:0"));
+    }
+
+    /**
+     * Test of run method, of class LoadGenerator.
+     */
+    @Test
+    public void testRun() throws Exception {
+        System.out.println("run");
+        SnapshotDatabaseReader reader = new SnapshotDatabaseReader();
+        LoadGenerator instance = new LoadGenerator(reader, "teams:1,team:1");
+        LoadGenerator.Report report = instance.run(2, 200, 42);
+        assertEquals(0, report.getHistogram("divisions").getCount());
+        assertTrue(report.getHistogram("teams").getCount() > 0);
+        assertTrue(report.getHistogram("team").getCount() > 0);
+        assertEquals(report.getHistogram("teams").getCount() + report.getHistogram("team").getCount(),
+                report.getTotal().getCount());
+        assertTrue(report.getElapsedNanos() >= 200000000L);
+        LinkedHashMap<String, Object> map = report.toMap();
+        assertEquals(2, map.get("clients"));
+        assertTrue(((LinkedHashMap<?, ?>) map.get("total")).containsKey("p999_us"));
+        assertFalse(((LinkedHashMap<?, ?>) map.get("operations")).containsKey("divisions"));
+        reader.close();
+    }
+
+    /**
+     * Test of run method with a failing reader, of class LoadGenerator.
+     */
+    @Test
+    public void testRunFailure() {
+        System.out.println("runFailure");
+        SnapshotDatabaseReader reader = new SnapshotDatabaseReader() {
+            @Override
+            public Team getTeamInfo(String teamName) {
+                throw new IllegalStateException("broken");
+            }
+        };
+        LoadGenerator instance = new LoadGenerator(reader, "team:1");
+        ExecutionException result = assertThrows(ExecutionException.class, () -> instance.run(2, 100, 42));
+        assertEquals("broken", result.getCause().getMessage());
+        reader.close();
+    }
+
+    /**
+     * Test of main method, of class LoadGenerator.
+     */
+    @Test
+    public void testMain() {
+        System.out.println("main");
+        String[] args = {"mlb.sqlite", "2", "0.2", LoadGenerator.DEFAULT_MIX, "snapshot"};
+        LoadGenerator.main(args);
+    }
+}
@@ -0,0 +1,98 @@
+package mlb;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoadPipelineTest {
+
+    static Path teams;
+    static Path addresses;
+    static Path players;
+
+    public LoadPipelineTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() throws IOException {
+        System.out.println("LoadPipeline");
+        teams = Files.createTempFile("teams", ".json");
+        Files.writeString(teams, "[{\"team_id\":\"luther-norse\",\"abbreviation\":\"NRS\",\"conference\":\"IIAC\","
+                + "\"division\":\"NCAA, Division 3\",\"full_name\":\"Luther Norse\"}]");
+        addresses = Files.createTempFile("teams", ".txt");
+        Files.writeString(addresses, "Luther Norse\tBaseball Field\t700 College Dr\tDecorah\tIA\t52101\t563-387-2000\tluther.edu\n");
+        players = Files.createTempFile("players", ".csv");
+        StringBuilder csv = new StringBuilder("mlb_id,mlb_name,mlb_pos,mlb_team,mlb_team_long\n");
+        for (int i = 0; i < 25; i++) {
+            csv.append(i).append(",Player ").append(i).append(",P,NRS,Luther Norse\n");
+        }
+        csv.append("99,Bobby Tables,SS,IAC,Iowa Corndogs\n");
+        Files.writeString(players, csv);
+    }
+
+    @AfterAll
+    public static void tearDownClass() throws IOException {
+        Files.deleteIfExists(teams);
+        Files.deleteIfExists(addresses);
+        Files.deleteIfExists(players);
+        File db_file = new File("data/mlb/test_pipeline.sqlite");
+
+        if (db_file.exists()) {
+            db_file.delete();
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of run method, of class LoadPipeline.
+     */
+    @Test
+    public void testRun() throws Exception {
+        System.out.println("run");
+        DatabaseWriter writer = new DatabaseWriter();
+        Connection db_connection = writer.openConnection("test_pipeline.sqlite");
+        writer.createTables(db_connection);
+        LoadPipeline instance = new LoadPipeline(writer, 4, 10);
+        LoadPipeline.Summary result = instance.run(db_connection, teams.toString(), addresses.toString(), players.toString());
+        assertEquals(1, result.getTeams());
+        assertEquals(1, result.getAddresses());
+        assertEquals(25, result.getPlayers());
+        assertEquals(1, result.getSkipped());
+        assertEquals(3, result.getTransactions());
+        ResultSet results = db_connection.createStatement().executeQuery("SELECT COUNT(*) FROM player;");
+        assertEquals(25, results.getInt(1));
+        db_connection.close();
+    }
+
+    /**
+     * Test of run method with a missing file, of class LoadPipeline.
+     */
+    @Test
+    public void testRunMissingFile() throws Exception {
+        System.out.println("runMissingFile");
+        DatabaseWriter writer = new DatabaseWriter();
+        Connection db_connection = writer.openConnection("test_pipeline.sqlite");
+        writer.createTables(db_connection);
+        LoadPipeline instance = new LoadPipeline(writer, 4, 10);
+        assertThrows(IOException.class,
+                () -> instance.run(db_connection, teams.toString(), addresses.toString(), "data/mlb/none.csv"));
+        db_connection.close();
+    }
+}
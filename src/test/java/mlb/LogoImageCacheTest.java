@@ -0,0 +1,151 @@
+package mlb;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.ImageIcon;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogoImageCacheTest {
+
+    public LogoImageCacheTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("LogoImageCache");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of decode method, of class LogoImageCache.
+     */
+    @Test
+    public void testDecode() throws Exception {
+        System.out.println("decode");
+        ImageIcon result = LogoImageCache.decode(Files.readAllBytes(Paths.get("images/mlb/logo_nrs.jpg")));
+        assertTrue(result.getIconWidth() <= LogoImageCache.WIDTH);
+        assertTrue(result.getIconHeight() <= LogoImageCache.HEIGHT);
+        assertTrue(result.getIconWidth() == LogoImageCache.WIDTH || result.getIconHeight() == LogoImageCache.HEIGHT);
+        assertNull(LogoImageCache.decode(null));
+        assertNull(LogoImageCache.decode(new byte[] { 1, 2, 3 }));
+    }
+
+    /**
+     * Test of getIcon method, of class LogoImageCache.
+     */
+    @Test
+    public void testGetIcon() throws Exception {
+        System.out.println("getIcon");
+        AsyncDatabaseReader reader = new AsyncDatabaseReader(new DatabaseReader());
+        LogoImageCache instance = new LogoImageCache(LogoImageCache.DEFAULT_MAX_BYTES);
+        Team team = reader.getTeamInfo("Chicago Cubs").get();
+        ImageIcon first = instance.getIcon(team, reader).get();
+        ImageIcon second = instance.getIcon(team, reader).get();
+        assertSame(first, second);
+        assertEquals(1, instance.getHits());
+        assertEquals(1, instance.getMisses());
+        instance.close();
+        reader.close();
+    }
+
+    /**
+     * Test of getIcon method while the logo is being fetched, of class LogoImageCache.
+     */
+    @Test
+    public void testGetIconInFlight() throws Exception {
+        System.out.println("getIconInFlight");
+        AsyncDatabaseReader reader = new AsyncDatabaseReader(new DatabaseReader());
+        LogoImageCache instance = new LogoImageCache(LogoImageCache.DEFAULT_MAX_BYTES);
+        byte[] logo = Files.readAllBytes(Paths.get("images/mlb/logo_nrs.jpg"));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger fetches = new AtomicInteger();
+        Team team = new Team("luther-norse", "NRS", "Luther Norse", "IIAC", "NCAA, Division 3");
+        team.setLogoLoader(() -> {
+            fetches.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return logo;
+        });
+        ArrayList<CompletableFuture<ImageIcon>> icons = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            icons.add(instance.getIcon(team, reader));
+        }
+        release.countDown();
+        ImageIcon first = icons.get(0).get();
+        assertNotNull(first);
+        for (CompletableFuture<ImageIcon> icon : icons) {
+            assertSame(first, icon.get());
+        }
+        assertEquals(1, fetches.get());
+        assertEquals(1, instance.getMisses());
+        assertEquals(4, instance.getHits());
+        assertSame(first, instance.getIcon(team, reader).get());
+        instance.close();
+        reader.close();
+    }
+
+    /**
+     * Test of the memory bound, of class LogoImageCache.
+     */
+    @Test
+    public void testMaxBytes() throws Exception {
+        System.out.println("maxBytes");
+        long maxBytes = 4L * LogoImageCache.WIDTH * LogoImageCache.HEIGHT;
+        AsyncDatabaseReader reader = new AsyncDatabaseReader(new DatabaseReader());
+        LogoImageCache instance = new LogoImageCache(maxBytes);
+        Team cubs = reader.getTeamInfo("Chicago Cubs").get();
+        Team boston = reader.getTeamInfo("Boston Red Sox").get();
+        assertNotNull(instance.getIcon(cubs, reader).get());
+        assertNotNull(instance.getIcon(boston, reader).get());
+        assertTrue(instance.getBytes() <= maxBytes);
+        /* Only the most recent logo fits */
+        instance.getIcon(cubs, reader).get();
+        assertEquals(3, instance.getMisses());
+        instance.close();
+        reader.close();
+    }
+
+    /**
+     * Test of invalidate method, of class LogoImageCache.
+     */
+    @Test
+    public void testInvalidate() throws Exception {
+        System.out.println("invalidate");
+        AsyncDatabaseReader reader = new AsyncDatabaseReader(new DatabaseReader());
+        LogoImageCache instance = new LogoImageCache(LogoImageCache.DEFAULT_MAX_BYTES);
+        Team team = reader.getTeamInfo("Chicago Cubs").get();
+        ImageIcon first = instance.getIcon(team, reader).get();
+        instance.invalidate();
+        assertEquals(0, instance.getBytes());
+        ImageIcon second = instance.getIcon(team, reader).get();
+        assertNotSame(first, second);
+        assertSame(second, instance.getIcon(team, reader).get());
+        assertEquals(2, instance.getMisses());
+        instance.close();
+        reader.close();
+    }
+}
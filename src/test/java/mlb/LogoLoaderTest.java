@@ -0,0 +1,81 @@
+package mlb;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LogoLoaderTest {
+
+    LogoLoader instance;
+
+    public LogoLoaderTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("LogoLoader");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+        File copy = new File("images/mlb/logo_test.jpg");
+
+        if (copy.exists()) {
+            copy.delete();
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        instance = new LogoLoader(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        instance.close();
+    }
+
+    /**
+     * Test of load method, of class LogoLoader.
+     */
+    @Test
+    public void testLoad() {
+        System.out.println("load");
+        int expResult = 23764;
+        byte[] result = instance.load("images/mlb/logo_nrs.jpg").join();
+        assertEquals(expResult, result.length);
+        assertSame(instance.load("images/mlb/logo_nrs.jpg"), instance.load("images/mlb/logo_nrs.jpg"));
+    }
+
+    /**
+     * Test of load method with identical files, of class LogoLoader.
+     */
+    @Test
+    public void testLoadIdentical() throws Exception {
+        System.out.println("loadIdentical");
+        Path copy = Paths.get("images/mlb/logo_test.jpg");
+        Files.copy(Paths.get("images/mlb/logo_nrs.jpg"), copy, StandardCopyOption.REPLACE_EXISTING);
+        byte[] original = instance.load("images/mlb/logo_nrs.jpg").join();
+        byte[] duplicate = instance.load(copy.toString()).join();
+        assertSame(original, duplicate);
+        assertEquals(1, instance.getDistinctLogos());
+    }
+
+    /**
+     * Test of load method with a missing file, of class LogoLoader.
+     */
+    @Test
+    public void testLoadMissing() {
+        System.out.println("loadMissing");
+        assertNull(instance.load("images/mlb/logo_none.jpg").join());
+    }
+}
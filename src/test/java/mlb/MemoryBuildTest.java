@@ -0,0 +1,172 @@
+package mlb;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoryBuildTest {
+
+    private static final String DB_FILENAME = "test_memory.sqlite";
+
+    public MemoryBuildTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("MemoryBuild");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (String suffix : new String[] { "", "-wal", "-shm" }) {
+            File db_file = new File("data/mlb/" + DB_FILENAME + suffix);
+
+            if (db_file.exists()) {
+                db_file.delete();
+            }
+        }
+    }
+
+    private static ArrayList<Team> league() {
+        ArrayList<Team> league = new ArrayList<>();
+        league.add(new Team("luther-norse",
+                "NRS",
+                "Luther Norse",
+                "IIAC",
+                "NCAA, Division 3"));
+        return league;
+    }
+
+    private static int count(Connection db_connection, String sql) throws Exception {
+        ResultSet results = db_connection.createStatement().executeQuery(sql);
+        int count = results.next() ? results.getInt(1) : -1;
+        results.close();
+        return count;
+    }
+
+    private static int leftovers() {
+        String[] building = new File("data/mlb").list((dir, name) -> name.startsWith(DB_FILENAME + ".")
+                && name.endsWith(".building"));
+        return building == null ? 0 : building.length;
+    }
+
+    /**
+     * Test of publish method, of class MemoryBuild.
+     */
+    @Test
+    public void testPublish() throws Exception {
+        System.out.println("publish");
+        Files.write(Paths.get("data/mlb", DB_FILENAME), "not a database".getBytes(StandardCharsets.UTF_8));
+        DatabaseWriter writer = new DatabaseWriter();
+        try (MemoryBuild instance = new MemoryBuild(DB_FILENAME)) {
+            writer.createTables(instance.getConnection());
+            writer.writeTeamTable(instance.getConnection(), league());
+            writer.createIndexes(instance.getConnection());
+            assertEquals(Paths.get("data/mlb", DB_FILENAME).toAbsolutePath(), instance.publish());
+        }
+        assertEquals(0, leftovers());
+        Connection db_connection = DriverManager.getConnection(writer.SQLITEDBPATH + DB_FILENAME);
+        assertEquals(1, count(db_connection, "SELECT COUNT(*) FROM team;"));
+        assertTrue(count(db_connection, "SELECT COUNT(*) FROM sqlite_stat1;") > 0);
+        ResultSet results = db_connection.createStatement().executeQuery("PRAGMA journal_mode;");
+        assertEquals("delete", results.getString(1));
+        db_connection.close();
+    }
+
+    /**
+     * Test of close method without publish, of class MemoryBuild.
+     */
+    @Test
+    public void testAbandon() throws Exception {
+        System.out.println("abandon");
+        byte[] original = "not a database".getBytes(StandardCharsets.UTF_8);
+        Files.write(Paths.get("data/mlb", DB_FILENAME), original);
+        DatabaseWriter writer = new DatabaseWriter();
+        try (MemoryBuild instance = new MemoryBuild(DB_FILENAME, true)) {
+            writer.createTables(instance.getConnection());
+            writer.writeTeamTable(instance.getConnection(), league());
+            instance.commit();
+        }
+        assertArrayEquals(original, Files.readAllBytes(Paths.get("data/mlb", DB_FILENAME)));
+        assertEquals(0, leftovers());
+    }
+
+    /**
+     * Test of publish method over an open WAL database, of class MemoryBuild.
+     */
+    @Test
+    public void testPublishOverWal() throws Exception {
+        System.out.println("publishOverWal");
+        Files.copy(Paths.get("data/mlb/mlb.sqlite"), Paths.get("data/mlb", DB_FILENAME));
+        ConcurrentDatabaseReader reader = new ConcurrentDatabaseReader(DB_FILENAME, 2, true);
+        assertNotNull(reader.getTeamInfo("Chicago Cubs"));
+        assertTrue(new File("data/mlb/" + DB_FILENAME + "-wal").exists());
+        DatabaseWriter writer = new DatabaseWriter();
+        try (MemoryBuild instance = new MemoryBuild(DB_FILENAME)) {
+            writer.createTables(instance.getConnection());
+            writer.writeTeamTable(instance.getConnection(), league());
+            instance.publish();
+        }
+        assertEquals(0, leftovers());
+        assertNull(reader.getTeamInfo("Chicago Cubs"));
+        assertNotNull(reader.getTeamInfo("Luther Norse"));
+        reader.close();
+    }
+
+    /**
+     * Test of publish method under an open reader, of class MemoryBuild.
+     */
+    @Test
+    public void testPublishReopens() throws Exception {
+        System.out.println("publishReopens");
+        Files.copy(Paths.get("data/mlb/mlb.sqlite"), Paths.get("data/mlb", DB_FILENAME));
+        CachedDatabaseReader reader = new CachedDatabaseReader(DB_FILENAME, 10);
+        assertNotNull(reader.getTeamInfo("Chicago Cubs"));
+        long version = reader.getDataVersion();
+        DatabaseWriter writer = new DatabaseWriter();
+        try (MemoryBuild instance = new MemoryBuild(DB_FILENAME)) {
+            writer.createTables(instance.getConnection());
+            writer.writeTeamTable(instance.getConnection(), league());
+            instance.publish();
+        }
+        assertNull(reader.getTeamInfo("Chicago Cubs"));
+        assertNotNull(reader.getTeamInfo("Luther Norse"));
+        assertNotEquals(version, reader.getDataVersion());
+        reader.close();
+    }
+
+    /**
+     * Test of loadInMemory method, of class DatabaseWriterDriver.
+     */
+    @Test
+    public void testLoadInMemory() throws Exception {
+        System.out.println("loadInMemory");
+        DatabaseWriter writer = new DatabaseWriter();
+        DatabaseWriterDriver.loadInMemory(writer, DB_FILENAME);
+        Connection db_connection = DriverManager.getConnection(writer.SQLITEDBPATH + DB_FILENAME);
+        assertEquals(30, count(db_connection, "SELECT COUNT(*) FROM team;"));
+        assertEquals(3069, count(db_connection, "SELECT COUNT(*) FROM player;"));
+        assertEquals(3069, count(db_connection, "SELECT COUNT(*) FROM player_search;"));
+        db_connection.close();
+    }
+}
@@ -0,0 +1,49 @@
+package mlb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefetchPolicyTest {
+
+    public PrefetchPolicyTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("PrefetchPolicy");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+        System.clearProperty(PrefetchPolicy.PROPERTY);
+    }
+
+    /**
+     * Test of fromProperty method, of class PrefetchPolicy.
+     */
+    @Test
+    public void testFromProperty() {
+        System.out.println("fromProperty");
+        System.clearProperty(PrefetchPolicy.PROPERTY);
+        assertEquals(PrefetchPolicy.ROSTERS_AND_LOGOS, PrefetchPolicy.fromProperty());
+        System.setProperty(PrefetchPolicy.PROPERTY, "off");
+        assertEquals(PrefetchPolicy.OFF, PrefetchPolicy.fromProperty());
+        System.setProperty(PrefetchPolicy.PROPERTY, "Rosters");
+        assertEquals(PrefetchPolicy.ROSTERS, PrefetchPolicy.fromProperty());
+        System.setProperty(PrefetchPolicy.PROPERTY, "sometimes");
+        assertEquals(PrefetchPolicy.ROSTERS_AND_LOGOS, PrefetchPolicy.fromProperty());
+    }
+}
@@ -0,0 +1,92 @@
+package mlb;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProjectedCsvReaderTest {
+
+    public ProjectedCsvReaderTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("ProjectedCsvReader");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of readNext method, of class ProjectedCsvReader.
+     */
+    @Test
+    public void testReadNext() throws Exception {
+        System.out.println("readNext");
+        ProjectedCsvReader instance = new ProjectedCsvReader("data/mlb/players.csv", DatabaseWriter.PLAYER_COLUMNS);
+        String[] first = instance.readNext();
+        assertArrayEquals(new String[] { "592091", "A.J. Achter", "Los Angeles Angels", "P" }, first);
+        int expResult = 3069;
+        int result = 1;
+        while (instance.readNext() != null) {
+            result++;
+        }
+        instance.close();
+        assertEquals(expResult, result);
+    }
+
+    /**
+     * Test of readNext method with quoted fields, of class ProjectedCsvReader.
+     */
+    @Test
+    public void testReadNextQuoted() throws Exception {
+        System.out.println("readNextQuoted");
+        String csv = "a,b,c\r\n\"x,1\",\"said \"\"hi\"\"\",z\r\n\r\n1,,3\r\n5\n\n";
+        InputStream in = new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+        ProjectedCsvReader instance = new ProjectedCsvReader(in, StandardCharsets.UTF_8, "c", "b", "a");
+        assertArrayEquals(new String[] { "z", "said \"hi\"", "x,1" }, instance.readNext());
+        assertArrayEquals(new String[] { "3", "", "1" }, instance.readNext());
+        assertNull(instance.readNext());
+        assertEquals(6, instance.getLineNumber());
+        assertEquals(1, instance.getMalformed());
+        instance.close();
+    }
+
+    /**
+     * Test of the constructor with an unknown column, of class ProjectedCsvReader.
+     */
+    @Test
+    public void testUnknownColumn() {
+        System.out.println("unknownColumn");
+        assertThrows(IllegalArgumentException.class,
+                () -> new ProjectedCsvReader("data/mlb/players.csv", "mlb_id", "no_such_column"));
+    }
+
+    /**
+     * Test of getHeader method, of class ProjectedCsvReader.
+     */
+    @Test
+    public void testGetHeader() throws Exception {
+        System.out.println("getHeader");
+        ProjectedCsvReader instance = new ProjectedCsvReader("data/mlb/players.csv", "mlb_id");
+        int expResult = 35;
+        assertEquals(expResult, instance.getHeader().length);
+        instance.close();
+    }
+}
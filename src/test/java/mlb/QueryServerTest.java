@@ -0,0 +1,224 @@
+package mlb;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QueryServerTest {
+
+    ConcurrentDatabaseReader reader;
+    QueryServer server;
+    HttpClient client;
+
+    public QueryServerTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("QueryServer");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.copy(Paths.get("data/mlb/mlb.sqlite"), Paths.get("data/mlb/test_server.sqlite"),
+                StandardCopyOption.REPLACE_EXISTING);
+        reader = new ConcurrentDatabaseReader("test_server.sqlite", 4);
+        server = new QueryServer(reader, 0, 8);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+        reader.close();
+        for (String suffix : new String[] { "", "-wal", "-shm" }) {
+            File db_file = new File("data/mlb/test_server.sqlite" + suffix);
+
+            if (db_file.exists()) {
+                db_file.delete();
+            }
+        }
+    }
+
+    private HttpResponse<byte[]> get(String pathAndQuery, String... headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + pathAndQuery));
+        if (headers.length > 0) {
+            request.headers(headers);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Test of the divisions endpoint and ETag revalidation, of class QueryServer.
+     */
+    @Test
+    public void testDivisions() throws Exception {
+        System.out.println("divisions");
+        HttpResponse<byte[]> response = get("/api/divisions");
+        assertEquals(200, response.statusCode());
+        assertTrue(new String(response.body(), StandardCharsets.UTF_8).contains("\"National | Central\""));
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        assertNotNull(etag);
+        response = get("/api/divisions", "If-None-Match", etag);
+        assertEquals(304, response.statusCode());
+        assertEquals(0, response.body().length);
+        response = get("/api/divisions", "If-None-Match", "\"stale\"");
+        assertEquals(200, response.statusCode());
+        response = get("/api/teams?division=National%20%7C%20Central");
+        assertEquals(200, response.statusCode());
+        assertTrue(new String(response.body(), StandardCharsets.UTF_8).contains("\"Chicago Cubs\""));
+    }
+
+    /**
+     * Test of the team and roster endpoints with gzip, of class QueryServer.
+     */
+    @Test
+    public void testTeam() throws Exception {
+        System.out.println("team");
+        HttpResponse<byte[]> response = get("/api/team?name=Chicago+Cubs", "Accept-Encoding", "gzip");
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        String body = new String(new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"full_name\":\"Chicago Cubs\""));
+        assertTrue(body.contains("\"roster\":["));
+        assertFalse(body.contains("\"logo\""));
+        String gzipEtag = response.headers().firstValue("ETag").orElse(null);
+        assertTrue(gzipEtag.endsWith("-gz\""));
+        response = get("/api/team?name=Chicago+Cubs");
+        assertFalse(response.headers().firstValue("Content-Encoding").isPresent());
+        assertEquals(body, new String(response.body(), StandardCharsets.UTF_8));
+        String etag = response.headers().firstValue("ETag").orElse(null);
+        assertNotEquals(gzipEtag, etag);
+        /* A cached gzip body must not satisfy a client that gets identity bodies */
+        assertEquals(200, get("/api/team?name=Chicago+Cubs", "If-None-Match", gzipEtag).statusCode());
+        assertEquals(304, get("/api/team?name=Chicago+Cubs", "If-None-Match", etag).statusCode());
+
+        response = get("/api/roster?team=Chicago+Cubs&sort=position&order=desc&offset=0&limit=3");
+        assertEquals(200, response.statusCode());
+        body = new String(response.body(), StandardCharsets.UTF_8);
+        assertEquals(3, body.split("\"position\"").length - 1);
+    }
+
+    /**
+     * Test of error responses, of class QueryServer.
+     */
+    @Test
+    public void testErrors() throws Exception {
+        System.out.println("errors");
+        assertEquals(404, get("/api/team?name=Luther+Norse").statusCode());
+        assertEquals(404, get("/api/roster?team=Luther+Norse").statusCode());
+        assertEquals(404, get("/api/logo?id=0").statusCode());
+        assertEquals(404, get("/api/divisions/extra").statusCode());
+        assertEquals(400, get("/api/team").statusCode());
+        assertEquals(400, get("/api/teams?division=Central").statusCode());
+        assertEquals(400, get("/api/roster?team=Chicago+Cubs&sort=id").statusCode());
+        assertEquals(400, get("/api/roster?team=Chicago+Cubs&limit=100000").statusCode());
+        HttpRequest post = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/api/divisions"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+        HttpResponse<byte[]> response = client.send(post, HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(405, response.statusCode());
+        assertEquals("GET, HEAD", response.headers().firstValue("Allow").orElse(null));
+    }
+
+    /**
+     * Test of many concurrent requests, of class QueryServer; prints the rate.
+     */
+    @Test
+    public void testThroughput() throws Exception {
+        System.out.println("throughput");
+        String[] paths = { "/api/divisions", "/api/teams?division=American%20%7C%20East", "/api/team?name=Chicago+Cubs",
+            "/api/roster?team=New+York+Yankees&limit=25" };
+        int clients = 8;
+        int requests = 500;
+        for (String path : paths) {
+            assertEquals(200, get(path).statusCode());
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        ArrayList<Future<Integer>> failures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            int first = c;
+            failures.add(executor.submit(() -> {
+                int failed = 0;
+                for (int i = 0; i < requests; i++) {
+                    if (get(paths[(first + i) % paths.length], "Accept-Encoding", "gzip").statusCode() != 200) {
+                        failed++;
+                    }
+                }
+                return failed;
+            }));
+        }
+        for (Future<Integer> failed : failures) {
+            assertEquals(0, failed.get().intValue());
+        }
+        double perSecond = clients * requests * 1e9 / (System.nanoTime() - start);
+        executor.shutdown();
+        /* Reported, not asserted: wall-clock rates depend on the machine */
+        System.out.printf("%.0f requests/sec%n", perSecond);
+    }
+
+    /**
+     * Test of matches method, of class QueryServer.
+     */
+    @Test
+    public void testMatches() {
+        System.out.println("matches");
+        assertTrue(QueryServer.matches("\"a\"", "\"a\""));
+        assertTrue(QueryServer.matches("\"b\", W/\"a\"", "\"a\""));
+        assertTrue(QueryServer.matches("*", "\"a\""));
+        assertFalse(QueryServer.matches("\"b\"", "\"a\""));
+        assertFalse(QueryServer.matches(null, "\"a\""));
+    }
+
+    /**
+     * Test of acceptsGzip method, of class QueryServer.
+     */
+    @Test
+    public void testAcceptsGzip() {
+        System.out.println("acceptsGzip");
+        assertTrue(QueryServer.acceptsGzip("gzip, deflate, br"));
+        assertTrue(QueryServer.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertFalse(QueryServer.acceptsGzip("gzip;q=0"));
+        assertFalse(QueryServer.acceptsGzip("deflate"));
+        assertFalse(QueryServer.acceptsGzip(null));
+    }
+
+    /**
+     * Test of parseQuery method, of class QueryServer.
+     */
+    @Test
+    public void testParseQuery() {
+        System.out.println("parseQuery");
+        HashMap<String, String> parameters = QueryServer.parseQuery("name=Chicago+Cubs&division=National%20%7C%20Central&flag");
+        assertEquals("Chicago Cubs", parameters.get("name"));
+        assertEquals("National | Central", parameters.get("division"));
+        assertEquals("", parameters.get("flag"));
+        assertTrue(QueryServer.parseQuery(null).isEmpty());
+    }
+}
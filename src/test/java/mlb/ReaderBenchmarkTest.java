@@ -0,0 +1,40 @@
+package mlb;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class ReaderBenchmarkTest {
+
+    public ReaderBenchmarkTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("ReaderBenchmark");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of main method, of class ReaderBenchmark.
+     */
+    @Test
+    public void testMain() {
+        System.out.println("main");
+        String[] args = {"mlb.sqlite", "10"};
+        ReaderBenchmark.main(args);
+    }
+}
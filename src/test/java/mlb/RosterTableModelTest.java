@@ -0,0 +1,92 @@
+package mlb;
+
+import java.awt.EventQueue;
+import java.util.concurrent.Callable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RosterTableModelTest {
+
+    AsyncDatabaseReader reader;
+    RosterTableModel instance;
+
+    public RosterTableModelTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("RosterTableModel");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        reader = new AsyncDatabaseReader(new DatabaseReader());
+        instance = new RosterTableModel(reader, 20);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        reader.close();
+    }
+
+    /**
+     * Run on the event dispatch thread until the condition holds
+     */
+    private void await(Callable<Boolean> condition) throws Exception {
+        boolean[] done = { false };
+        for (int i = 0; i < 500 && !done[0]; i++) {
+            EventQueue.invokeAndWait(() -> {
+                try {
+                    done[0] = condition.call();
+                } catch (Exception ex) {
+                    fail(ex.toString());
+                }
+            });
+            Thread.sleep(10);
+        }
+        assertTrue(done[0]);
+    }
+
+    /**
+     * Test of setTeam and getValueAt methods, of class RosterTableModel.
+     */
+    @Test
+    public void testSetTeam() throws Exception {
+        System.out.println("setTeam");
+        EventQueue.invokeAndWait(() -> instance.setTeam("Chicago Cubs"));
+        await(() -> instance.getRowCount() == 114);
+        EventQueue.invokeAndWait(() -> assertEquals(RosterTableModel.LOADING, instance.getValueAt(100, 0)));
+        await(() -> !RosterTableModel.LOADING.equals(instance.getValueAt(100, 0)));
+        /* Only the page holding row 100 was read */
+        EventQueue.invokeAndWait(() -> assertEquals(1, instance.getLoadedPages()));
+        EventQueue.invokeAndWait(() -> instance.setTeam(null));
+        EventQueue.invokeAndWait(() -> assertEquals(0, instance.getRowCount()));
+    }
+
+    /**
+     * Test of sortBy method, of class RosterTableModel.
+     */
+    @Test
+    public void testSortBy() throws Exception {
+        System.out.println("sortBy");
+        EventQueue.invokeAndWait(() -> instance.setTeam("Chicago Cubs"));
+        await(() -> instance.getRowCount() == 114);
+        EventQueue.invokeAndWait(() -> {
+            instance.sortBy(1);
+            instance.sortBy(1);
+            assertEquals(1, instance.getSortColumn());
+            assertFalse(instance.isAscending());
+            assertEquals(0, instance.getLoadedPages());
+        });
+        await(() -> "SS".equals(instance.getValueAt(0, 1)));
+    }
+}
@@ -0,0 +1,68 @@
+package mlb;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedIngestBenchmarkTest {
+
+    public ShardedIngestBenchmarkTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("ShardedIngestBenchmark");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of writeSyntheticCsv method, of class ShardedIngestBenchmark.
+     */
+    @Test
+    public void testWriteSyntheticCsv() throws Exception {
+        System.out.println("writeSyntheticCsv");
+        DatabaseWriter writer = new DatabaseWriter();
+        Path csv = Files.createTempFile("players", ".csv");
+        try {
+            ShardedIngestBenchmark.writeSyntheticCsv(csv, writer.readTeamFromJson("data/mlb/teams.json"), 100);
+            List<String> lines = Files.readAllLines(csv, Charset.defaultCharset());
+            assertEquals(101, lines.size());
+            assertEquals(String.join(",", DatabaseWriter.PLAYER_COLUMNS), lines.get(0));
+            assertTrue(lines.get(1).startsWith("1000000,Player 0,"));
+            assertTrue(lines.get(100).startsWith("1000099,Player 99,"));
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    /**
+     * Test of main method, of class ShardedIngestBenchmark.
+     */
+    @Test
+    public void testMain() {
+        System.out.println("main");
+        ShardedIngestBenchmark.main(new String[] { "20000", "2" });
+        assertFalse(new File("data/mlb/bench_single.sqlite").exists());
+        assertFalse(new File("data/mlb/bench_sharded.sqlite").exists());
+    }
+}
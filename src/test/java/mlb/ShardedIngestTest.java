@@ -0,0 +1,144 @@
+package mlb;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShardedIngestTest {
+
+    private static final String SINGLE_FILENAME = "test_single.sqlite";
+    private static final String SHARDED_FILENAME = "test_sharded.sqlite";
+
+    public ShardedIngestTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("ShardedIngest");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+        for (String db_filename : new String[] { SINGLE_FILENAME, SHARDED_FILENAME }) {
+            for (String suffix : new String[] { "", "-wal", "-shm" }) {
+                File db_file = new File("data/mlb/" + db_filename + suffix);
+
+                if (db_file.exists()) {
+                    db_file.delete();
+                }
+            }
+        }
+    }
+
+    private static ArrayList<String> players(Connection db_connection) throws Exception {
+        ArrayList<String> players = new ArrayList<>();
+        ResultSet results = db_connection.createStatement()
+                .executeQuery("SELECT idpk, id, name, team, position FROM player ORDER BY idpk;");
+        while (results.next()) {
+            players.add(results.getInt(1) + "|" + results.getString(2) + "|" + results.getString(3) + "|"
+                    + results.getString(4) + "|" + results.getString(5));
+        }
+        results.close();
+        return players;
+    }
+
+    /**
+     * Test of splitPoints method, of class ShardedIngest.
+     */
+    @Test
+    public void testSplitPoints() throws Exception {
+        System.out.println("splitPoints");
+        String header = "mlb_id,mlb_name,mlb_team_long,mlb_pos\n";
+        StringBuilder csv = new StringBuilder(header);
+        for (int i = 0; i < 50; i++) {
+            csv.append(i).append(",\"Player\n").append(i).append("\",Chicago Cubs,P\n");
+        }
+        Path file = Files.createTempFile("split", ".csv");
+        try {
+            byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+            Files.write(file, bytes);
+            for (int shards = 1; shards <= ShardedIngest.MAX_SHARDS; shards++) {
+                long[] bounds = ShardedIngest.splitPoints(file, shards);
+                assertEquals(shards + 1, bounds.length);
+                assertEquals(header.length(), bounds[0]);
+                assertEquals(bytes.length, bounds[shards]);
+                for (int s = 1; s < shards; s++) {
+                    assertTrue(bounds[s] >= bounds[s - 1]);
+                    /* Every cut follows a row's closing position, not a quoted line break */
+                    assertEquals('\n', bytes[(int) bounds[s] - 1]);
+                    assertEquals('P', bytes[(int) bounds[s] - 2]);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Test of run method, of class ShardedIngest.
+     */
+    @Test
+    public void testRun() throws Exception {
+        System.out.println("run");
+        DatabaseWriter writer = new DatabaseWriter();
+        ArrayList<Team> league = writer.readTeamFromJson("data/mlb/teams.json");
+        ArrayList<String> expected;
+        try (IngestSession session = new IngestSession(writer, SINGLE_FILENAME)) {
+            writer.createTables(session.getConnection());
+            writer.writeTeamTable(session.getConnection(), league);
+            try (Stream<Player> roster = writer.streamPlayersFromCsv("data/mlb/players.csv")) {
+                writer.writePlayerTable(session.getConnection(), roster, DatabaseWriter.DEFAULT_BATCH_SIZE);
+            }
+            session.commit();
+            expected = players(session.getConnection());
+        }
+        assertEquals(3069, expected.size());
+
+        for (int shards : new int[] { 1, 4, ShardedIngest.MAX_SHARDS }) {
+            try (IngestSession session = new IngestSession(writer, SHARDED_FILENAME)) {
+                writer.createTables(session.getConnection());
+                writer.writeTeamTable(session.getConnection(), league);
+                ShardedIngest instance = new ShardedIngest(writer, shards, 100);
+                ShardedIngest.Summary summary = instance.run(session.getConnection(), "data/mlb/players.csv");
+                assertEquals(3069, summary.getPlayers());
+                assertEquals(0, summary.getSkipped());
+                assertFalse(session.getConnection().getAutoCommit());
+                assertEquals(expected, players(session.getConnection()));
+            }
+            tearDown();
+        }
+    }
+
+    /**
+     * Test of the constructor's bounds, of class ShardedIngest.
+     */
+    @Test
+    public void testShardBounds() {
+        System.out.println("shardBounds");
+        DatabaseWriter writer = new DatabaseWriter();
+        assertThrows(IllegalArgumentException.class, () -> new ShardedIngest(writer, 0, 100));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedIngest(writer, ShardedIngest.MAX_SHARDS + 1, 100));
+        assertThrows(IllegalArgumentException.class, () -> new ShardedIngest(writer, 1, 0));
+        assertNotNull(new ShardedIngest(writer, ShardedIngest.MAX_SHARDS, 100));
+    }
+}
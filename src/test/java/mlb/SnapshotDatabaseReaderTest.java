@@ -0,0 +1,210 @@
+package mlb;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnapshotDatabaseReaderTest {
+
+    public SnapshotDatabaseReaderTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+        System.out.println("SnapshotDatabaseReader");
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Files.copy(Paths.get("data/mlb/mlb.sqlite"), Paths.get("data/mlb/test_snapshot.sqlite"),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        File db_file = new File("data/mlb/test_snapshot.sqlite");
+
+        if (db_file.exists()) {
+            db_file.delete();
+        }
+    }
+
+    /**
+     * Test of the DatabaseReader lookups, of class SnapshotDatabaseReader.
+     */
+    @Test
+    public void testLookups() {
+        System.out.println("lookups");
+        SnapshotDatabaseReader instance = new SnapshotDatabaseReader("test_snapshot.sqlite");
+        DatabaseReader expected = new DatabaseReader("test_snapshot.sqlite");
+        ArrayList<String> divisions = new ArrayList<>();
+        instance.getDivisions(divisions);
+        assertEquals(6, divisions.size());
+        for (String confDiv : divisions) {
+            ArrayList<String> teams = new ArrayList<>();
+            ArrayList<String> expTeams = new ArrayList<>();
+            instance.getTeams(confDiv, teams);
+            expected.getTeams(confDiv, expTeams);
+            assertEquals(expTeams.size(), teams.size());
+            assertTrue(teams.containsAll(expTeams));
+        }
+        Team result = instance.getTeamInfo("Chicago Cubs");
+        assertEquals(114, result.getRoster().size());
+        assertEquals("Chicago", result.getAddress().getCity());
+        assertArrayEquals(expected.getLogo(result.getId()), instance.getLogo(result.getId()));
+        assertNull(instance.getTeamInfo("Luther Norse"));
+        assertEquals(5, instance.getDivisionDetail("National | Central").size());
+        expected.close();
+        instance.close();
+    }
+
+    /**
+     * Test of search method, of class SnapshotDatabaseReader.
+     */
+    @Test
+    public void testSearch() {
+        System.out.println("search");
+        SnapshotDatabaseReader instance = new SnapshotDatabaseReader("test_snapshot.sqlite");
+        assertTrue(instance.hasSearchIndex());
+        ArrayList<Player> result = instance.search("cub riz", 10);
+        assertEquals(1, result.size());
+        assertEquals("Anthony Rizzo", result.get(0).getName());
+        assertEquals("Chicago Cubs", result.get(0).getTeam());
+        assertEquals(5, instance.search("lopez", 5).size());
+        assertTrue(instance.search("   ", 10).isEmpty());
+        assertTrue(instance.search("\" OR name:*", 10).isEmpty());
+        instance.close();
+    }
+
+    /**
+     * Test of the copies handed out, of class LeagueSnapshot.
+     */
+    @Test
+    public void testCopies() {
+        System.out.println("copies");
+        SnapshotDatabaseReader instance = new SnapshotDatabaseReader("test_snapshot.sqlite");
+        Team first = instance.getTeamInfo("Chicago Cubs");
+        assertNotSame(first, instance.getTeamInfo("Chicago Cubs"));
+        first.getRoster().clear();
+        first.getLogo()[0]++;
+        first.setLogo(null);
+        Team second = instance.getTeamInfo("Chicago Cubs");
+        assertEquals(114, second.getRoster().size());
+        assertEquals(114, instance.getRosterSize("Chicago Cubs"));
+        assertArrayEquals(instance.getLogo(second.getId()), second.getLogo());
+        assertNotSame(instance.getLogo(second.getId()), instance.getLogo(second.getId()));
+        assertThrows(UnsupportedOperationException.class,
+                () -> instance.getSnapshot().getRoster("Chicago Cubs").clear());
+        instance.close();
+    }
+
+    /**
+     * Test of getRosterPage method, of class SnapshotDatabaseReader.
+     */
+    @Test
+    public void testGetRosterPage() {
+        System.out.println("getRosterPage");
+        SnapshotDatabaseReader instance = new SnapshotDatabaseReader("test_snapshot.sqlite");
+        DatabaseReader expected = new DatabaseReader("test_snapshot.sqlite");
+        assertEquals(expected.getRosterSize("Chicago Cubs"), instance.getRosterSize("Chicago Cubs"));
+        for (String column : DatabaseReader.ROSTER_SORT_COLUMNS) {
+            for (boolean ascending : new boolean[] { true, false }) {
+                ArrayList<Player> expPage = expected.getRosterPage("Chicago Cubs", column, ascending, 20, 30);
+                ArrayList<Player> page = instance.getRosterPage("Chicago Cubs", column, ascending, 20, 30);
+                assertEquals(expPage.size(), page.size());
+                for (int i = 0; i < page.size(); i++) {
+                    assertEquals(expPage.get(i).getId(), page.get(i).getId());
+                }
+            }
+        }
+        assertTrue(instance.getRosterPage("Chicago Cubs", "name", true, 200, 30).isEmpty());
+        expected.close();
+        instance.close();
+    }
+
+    /**
+     * Test of getPlayers method, of class LeagueSnapshot.
+     */
+    @Test
+    public void testGetPlayers() {
+        System.out.println("getPlayers");
+        LeagueSnapshot snapshot = new SnapshotDatabaseReader("test_snapshot.sqlite").getSnapshot();
+        assertEquals(30, snapshot.getTeamCount());
+        assertEquals(3069, snapshot.getPlayerCount());
+        List<Player> result = snapshot.getPlayers("Chicago Cubs", "P");
+        assertFalse(result.isEmpty());
+        for (Player player : result) {
+            assertEquals("P", player.getPosition());
+        }
+        assertTrue(snapshot.getPlayers("Luther Norse", "P").isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> result.clear());
+    }
+
+    /**
+     * Test of reloadIfModified method, of class SnapshotDatabaseReader.
+     */
+    @Test
+    public void testReloadIfModified() throws Exception {
+        System.out.println("reloadIfModified");
+        SnapshotDatabaseReader instance = new SnapshotDatabaseReader("test_snapshot.sqlite");
+        LeagueSnapshot before = instance.getSnapshot();
+        assertFalse(instance.reloadIfModified());
+        Team cubs = instance.getTeamInfo("Chicago Cubs");
+
+        Connection db_connection = DriverManager.getConnection("jdbc:sqlite:data/mlb/test_snapshot.sqlite");
+        Statement statement = db_connection.createStatement();
+        statement.executeUpdate("DELETE FROM player WHERE team = '" + cubs.getId() + "' AND position = 'P'");
+        statement.close();
+        db_connection.close();
+        new File("data/mlb/test_snapshot.sqlite").setLastModified(System.currentTimeMillis() + 2000);
+
+        assertTrue(instance.reloadIfModified());
+        assertNotSame(before, instance.getSnapshot());
+        assertTrue(instance.getSnapshot().getPlayers("Chicago Cubs", "P").isEmpty());
+        /* The old snapshot is left as it was */
+        assertEquals(114, before.getTeam("Chicago Cubs").getRoster().size());
+        assertEquals(114, cubs.getRoster().size());
+        instance.close();
+    }
+
+    /**
+     * Test of getDataVersion method, of class SnapshotDatabaseReader.
+     */
+    @Test
+    public void testGetDataVersion() throws Exception {
+        System.out.println("getDataVersion");
+        SnapshotDatabaseReader instance = new SnapshotDatabaseReader("test_snapshot.sqlite");
+        long version = instance.getDataVersion();
+        LeagueSnapshot before = instance.getSnapshot();
+        assertEquals(version, instance.getDataVersion());
+        assertSame(before, instance.getSnapshot());
+
+        Connection db_connection = DriverManager.getConnection("jdbc:sqlite:data/mlb/test_snapshot.sqlite");
+        Statement statement = db_connection.createStatement();
+        statement.executeUpdate("DELETE FROM player WHERE name = 'Anthony Rizzo'");
+        statement.close();
+        db_connection.close();
+        new File("data/mlb/test_snapshot.sqlite").setLastModified(System.currentTimeMillis() + 2000);
+
+        assertEquals(version + 1, instance.getDataVersion());
+        assertNotSame(before, instance.getSnapshot());
+        instance.close();
+    }
+}
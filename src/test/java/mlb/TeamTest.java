@@ -18,6 +18,7 @@ import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TeamTest {
@@ -205,6 +206,24 @@ public class TeamTest {
         assertArrayEquals(expResult, result);
     }
 
+    /**
+     * Test of setLogoLoader method, of class Team.
+     */
+    @Test
+    public void testSetLogoLoader() {
+        System.out.println("setLogoLoader");
+        byte[] expResult = new byte[] { 1, 2, 3 };
+        int[] calls = { 0 };
+        instance.setLogoLoader(() -> {
+            calls[0]++;
+            return expResult;
+        });
+        assertEquals(0, calls[0]);
+        assertSame(expResult, instance.getLogo());
+        assertSame(expResult, instance.getLogo());
+        assertEquals(1, calls[0]);
+    }
+
     /**
      * Test of toString method, of class Team.
      */